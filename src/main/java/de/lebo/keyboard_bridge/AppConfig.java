@@ -4,6 +4,7 @@ import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Locale;
 import java.util.Properties;
 
 /**
@@ -19,18 +20,42 @@ public class AppConfig {
     private String serverHost;
     private int serverPort;
     private int apiPort;
+    private int serverTimeoutMs;
     private String exportFolder;
+    private int bulkParallelism;
+    private int bulkRetries;
+    private int scanLaneLimit;
+    private int exportLaneLimit;
+    private int backgroundLimit;
+    private long laneAgingMs;
+    private ZplLabelSplitter.Mode splitMode;
+    private int splitThreads;
 
     // Default values
     private static final String DEFAULT_SERVER_HOST = "localhost";
     private static final int DEFAULT_SERVER_PORT = 4000;
     private static final int DEFAULT_API_PORT = 8080;
+    private static final int DEFAULT_SERVER_TIMEOUT_MS = 5000;
     private static final String DEFAULT_EXPORT_FOLDER = "C:\\DOCUMENTS\\Exported_ZPL_Etiketten_Code";
+    private static final int DEFAULT_BULK_PARALLELISM = 2;
+    private static final int DEFAULT_BULK_RETRIES = 2;
+    private static final int DEFAULT_SCAN_LANE_LIMIT = 4;
+    private static final int DEFAULT_EXPORT_LANE_LIMIT = 2;
+    private static final int DEFAULT_BACKGROUND_LIMIT = 3;
+    private static final int DEFAULT_LANE_AGING_MS = 2000;
+    private static final int DEFAULT_SPLIT_THREADS = 2;
 
     private AppConfig() {
         loadConfig();
     }
 
+    /**
+     * Configuration from the given properties only, without config.properties (for tests).
+     */
+    AppConfig(Properties props) {
+        apply(props);
+    }
+
     /**
      * Gets the singleton instance of AppConfig.
      */
@@ -59,12 +84,26 @@ public class AppConfig {
         } else {
             System.out.println("config.properties not found, using defaults");
         }
+        apply(props);
+    }
 
-        // Load values with defaults
+    /**
+     * Takes the values from the properties, with defaults for missing or invalid ones.
+     */
+    private void apply(Properties props) {
         serverHost = props.getProperty("server.host", DEFAULT_SERVER_HOST);
         serverPort = parseInt(props.getProperty("server.port"), DEFAULT_SERVER_PORT);
         apiPort = parseInt(props.getProperty("api.port"), DEFAULT_API_PORT);
+        serverTimeoutMs = Math.max(1, parseInt(props.getProperty("server.timeout.ms"), DEFAULT_SERVER_TIMEOUT_MS));
         exportFolder = props.getProperty("export.folder", DEFAULT_EXPORT_FOLDER);
+        bulkParallelism = Math.max(1, parseInt(props.getProperty("bulk.parallelism"), DEFAULT_BULK_PARALLELISM));
+        bulkRetries = Math.max(0, parseInt(props.getProperty("bulk.retries"), DEFAULT_BULK_RETRIES));
+        scanLaneLimit = Math.max(1, parseInt(props.getProperty("lane.scan.max"), DEFAULT_SCAN_LANE_LIMIT));
+        exportLaneLimit = Math.max(1, parseInt(props.getProperty("lane.export.max"), DEFAULT_EXPORT_LANE_LIMIT));
+        backgroundLimit = Math.max(1, parseInt(props.getProperty("lane.background.max"), DEFAULT_BACKGROUND_LIMIT));
+        laneAgingMs = Math.max(0, parseInt(props.getProperty("lane.aging.ms"), DEFAULT_LANE_AGING_MS));
+        splitMode = parseSplitMode(props.getProperty("export.split"));
+        splitThreads = Math.max(1, parseInt(props.getProperty("export.split.threads"), DEFAULT_SPLIT_THREADS));
     }
 
     /**
@@ -116,6 +155,21 @@ public class AppConfig {
         }
     }
 
+    /**
+     * Parses export.split (none, label, position, zpl) with fallback to none.
+     */
+    private ZplLabelSplitter.Mode parseSplitMode(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return ZplLabelSplitter.Mode.NONE;
+        }
+        try {
+            return ZplLabelSplitter.Mode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown export.split value: " + value);
+            return ZplLabelSplitter.Mode.NONE;
+        }
+    }
+
     // Getters
     public String getServerHost() {
         return serverHost;
@@ -129,15 +183,52 @@ public class AppConfig {
         return apiPort;
     }
 
+    public int getServerTimeoutMs() {
+        return serverTimeoutMs;
+    }
+
     public String getExportFolder() {
         return exportFolder;
     }
 
+    public int getBulkParallelism() {
+        return bulkParallelism;
+    }
+
+    public int getBulkRetries() {
+        return bulkRetries;
+    }
+
+    public int getScanLaneLimit() {
+        return scanLaneLimit;
+    }
+
+    public int getExportLaneLimit() {
+        return exportLaneLimit;
+    }
+
+    public int getBackgroundLimit() {
+        return backgroundLimit;
+    }
+
+    public long getLaneAgingMs() {
+        return laneAgingMs;
+    }
+
+    public ZplLabelSplitter.Mode getSplitMode() {
+        return splitMode;
+    }
+
+    public int getSplitThreads() {
+        return splitThreads;
+    }
+
     /**
      * Returns a summary of current configuration for logging.
      */
     public String getSummary() {
-        return String.format("Server: %s:%d, API: %d, Export: %s",
-                serverHost, serverPort, apiPort, exportFolder);
+        return String.format("Server: %s:%d, API: %d, Export: %s, Bulk: %dx/%d retries, Split: %s",
+                serverHost, serverPort, apiPort, exportFolder, bulkParallelism, bulkRetries,
+                splitMode.name().toLowerCase(Locale.ROOT));
     }
 }
@@ -0,0 +1,246 @@
+package de.lebo.keyboard_bridge;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs many {@link ExportJob}s through the {@link ExportClient} in the BULK lane
+ * of the {@link LaneScheduler}, so parallelism is bounded and live scans keep priority.
+ * Failed jobs are retried, progress is reported per job and a summary report is
+ * written when the run ends. Unfinished jobs are kept in a queue file in the
+ * export folder so a run can be resumed after the application restarts.
+ */
+public class BulkExportQueue {
+
+    private static final String QUEUE_FILE = "bulk_queue.pending";
+    private static final long RETRY_DELAY_MS = 1000;
+    private static final DateTimeFormatter FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    /**
+     * Receives progress from worker threads (not the JavaFX thread).
+     */
+    public interface Listener {
+        /** Called once per job after its last attempt. result is null and error set on failure. */
+        void onJobFinished(ExportJob job, ExportClient.Result result, Exception error, int done, int total);
+
+        /** Called once when all jobs are finished or the run was cancelled. */
+        void onRunFinished(int succeeded, int failed, boolean cancelled, Path report);
+    }
+
+    private final AppConfig config;
+    private final ExportClient client;
+    private final LaneScheduler scheduler;
+    private final Path queueFile;
+
+    // Jobs not yet finished, in input order - mirrored to QUEUE_FILE
+    private final Set<String> pending = new LinkedHashSet<>();
+    private final List<String> reportLines = new ArrayList<>();
+
+    private volatile boolean running = false;
+    private volatile boolean cancelled = false;
+
+    public BulkExportQueue(AppConfig config, ExportClient client, LaneScheduler scheduler) {
+        this.config = config;
+        this.client = client;
+        this.scheduler = scheduler;
+        this.queueFile = Paths.get(config.getExportFolder()).resolve(QUEUE_FILE);
+    }
+
+    /**
+     * Loads jobs left over from an interrupted run.
+     * @return unfinished jobs, empty if there are none
+     */
+    public List<ExportJob> loadPending() {
+        List<ExportJob> jobs = new ArrayList<>();
+        if (!Files.exists(queueFile)) {
+            return jobs;
+        }
+        try {
+            for (String line : Files.readAllLines(queueFile)) {
+                if (!line.isBlank()) {
+                    jobs.add(ExportJob.fromLine(line.trim()));
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error reading bulk queue: " + e.getMessage());
+        }
+        return jobs;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts processing the jobs in the background.
+     * Unfinished jobs of an interrupted run still in the queue file are run first,
+     * so starting a new run never drops them. Duplicate jobs are exported only once.
+     * @return number of jobs in the run
+     */
+    public synchronized int start(List<ExportJob> jobs, Listener listener) {
+        if (running) {
+            throw new IllegalStateException("Bulk export already running");
+        }
+        running = true;
+        cancelled = false;
+
+        List<ExportJob> all = loadPending();
+        all.addAll(jobs);
+
+        pending.clear();
+        reportLines.clear();
+        List<ExportJob> unique = new ArrayList<>();
+        for (ExportJob job : all) {
+            if (pending.add(job.toLine())) {
+                unique.add(job);
+            }
+        }
+        savePending();
+
+        int total = unique.size();
+        AtomicInteger done = new AtomicInteger();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(total);
+
+        if (total == 0) {
+            finishRun(0, 0, 0, listener);
+            return 0;
+        }
+
+        // The BULK lane limit (bulk.parallelism) bounds how many run at once
+        for (ExportJob job : unique) {
+            scheduler.submit(LaneScheduler.Lane.BULK, () -> {
+                try {
+                    if (cancelled) {
+                        return;
+                    }
+                    ExportClient.Result result = null;
+                    Exception error = null;
+                    try {
+                        result = runWithRetries(job);
+                        succeeded.incrementAndGet();
+                    } catch (Exception e) {
+                        error = e;
+                        failed.incrementAndGet();
+                    }
+                    finishJob(job, result, error);
+                    listener.onJobFinished(job, result, error, done.incrementAndGet(), total);
+                } finally {
+                    if (remaining.decrementAndGet() == 0) {
+                        finishRun(succeeded.get(), failed.get(), total, listener);
+                    }
+                }
+            });
+        }
+        return total;
+    }
+
+    /**
+     * Writes the report and notifies the listener once the last job is done.
+     */
+    private void finishRun(int succeeded, int failed, int total, Listener listener) {
+        Path report = writeReport(succeeded, failed, total);
+        running = false;
+        listener.onRunFinished(succeeded, failed, cancelled, report);
+    }
+
+    /**
+     * Stops after the jobs currently in progress.
+     * Remaining jobs stay in the queue file and can be resumed later.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Runs one job, retrying on connection errors and server errors.
+     */
+    private ExportClient.Result runWithRetries(ExportJob job) throws Exception {
+        int attempts = config.getBulkRetries() + 1;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return client.export(job);
+            } catch (ExportClient.ApiStatusException e) {
+                if (!e.isRetryable() || attempt >= attempts || cancelled) {
+                    throw e;
+                }
+            } catch (IOException e) {
+                if (attempt >= attempts || cancelled) {
+                    throw e;
+                }
+            }
+            Thread.sleep(RETRY_DELAY_MS * attempt);
+        }
+    }
+
+    /**
+     * Removes a finished job from the queue file and records it for the report.
+     */
+    private synchronized void finishJob(ExportJob job, ExportClient.Result result, Exception error) {
+        pending.remove(job.toLine());
+        savePending();
+        if (error == null) {
+            String split = result.getSplitSummary();
+            reportLines.add("OK    " + job.describe() + " -> " + result.getFile().getFileName()
+                    + (split != null ? " (" + split + ")" : ""));
+        } else {
+            reportLines.add("ERROR " + job.describe() + " -> " + error.getMessage());
+        }
+    }
+
+    /**
+     * Writes the pending jobs to the queue file, or deletes it when nothing is left.
+     * Written to a temp file first so a crash never leaves a half-written queue.
+     */
+    private synchronized void savePending() {
+        try {
+            if (pending.isEmpty()) {
+                Files.deleteIfExists(queueFile);
+                return;
+            }
+            Files.createDirectories(queueFile.getParent());
+            Path tmp = queueFile.resolveSibling(QUEUE_FILE + ".tmp");
+            Files.write(tmp, pending);
+            Files.move(tmp, queueFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error saving bulk queue: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the summary report next to the exports.
+     * @return report path, or null if it could not be written
+     */
+    private synchronized Path writeReport(int succeeded, int failed, int total) {
+        List<String> lines = new ArrayList<>();
+        lines.add("IMA Bulk Export - " + LocalDateTime.now());
+        lines.add(String.format("Total: %d, OK: %d, Errors: %d, Open: %d",
+                total, succeeded, failed, pending.size()));
+        lines.add("");
+        lines.addAll(reportLines);
+        for (String open : pending) {
+            lines.add("OPEN  " + ExportJob.fromLine(open).describe());
+        }
+
+        try {
+            Path report = queueFile.resolveSibling(
+                    "bulk_report_" + LocalDateTime.now().format(FILE_TIME_FORMAT) + ".txt");
+            Files.write(report, lines);
+            return report;
+        } catch (IOException e) {
+            System.err.println("Error writing bulk report: " + e.getMessage());
+            return null;
+        }
+    }
+}
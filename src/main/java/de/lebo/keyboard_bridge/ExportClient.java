@@ -0,0 +1,393 @@
+package de.lebo.keyboard_bridge;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+
+/**
+ * Calls the IMA Print REST API for an {@link ExportJob} and streams the response
+ * into the export folder. Blocking - callers run it on a background thread.
+ */
+public class ExportClient {
+
+    private static final DateTimeFormatter FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    private final AppConfig config;
+    private final ExportIndex index;
+    private final ZplLabelSplitter splitter;
+    // Temp files older than this are left over from an earlier process
+    private final long createdMillis = System.currentTimeMillis();
+
+    public ExportClient(AppConfig config, ExportIndex index) {
+        this.config = config;
+        this.index = index;
+        this.splitter = new ZplLabelSplitter(config);
+    }
+
+    /**
+     * Thrown when the API answers with a status other than 200.
+     */
+    public static class ApiStatusException extends IOException {
+        private final int statusCode;
+
+        public ApiStatusException(int statusCode) {
+            super("API error: " + statusCode);
+            this.statusCode = statusCode;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        /**
+         * Client errors (e.g. 404 not found) will not succeed on retry.
+         */
+        public boolean isRetryable() {
+            return statusCode < 400 || statusCode >= 500;
+        }
+    }
+
+    /**
+     * Outcome of an export: the saved file and, if splitting is enabled,
+     * the number of labels written or the reason the split failed.
+     */
+    public static class Result {
+        private final Path file;
+        private final int splitLabels;
+        private final String splitError;
+
+        Result(Path file, int splitLabels, String splitError) {
+            this.file = file;
+            this.splitLabels = splitLabels;
+            this.splitError = splitError;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public boolean isSplitFailed() {
+            return splitError != null;
+        }
+
+        /**
+         * "Split: N labels", "Split failed: ..." or null if splitting is disabled.
+         */
+        public String getSplitSummary() {
+            if (splitError != null) {
+                return "Split failed: " + splitError;
+            }
+            return splitLabels >= 0 ? "Split: " + splitLabels + " labels" : null;
+        }
+    }
+
+    /**
+     * Downloads the export for the given job and streams it to a file.
+     * If ZPL splitting is enabled, labels are extracted while downloading.
+     * The download goes to a temporary .part file that is moved to its final,
+     * collision-free name only when complete - an interrupted download leaves nothing behind.
+     * The saved file is recorded in the export index with size and SHA-256.
+     * A failed split does not fail the export; it is reported in the result.
+     * @return saved file and split outcome
+     * @throws ApiStatusException if the API does not answer with 200
+     * @throws IOException on connection or file errors
+     */
+    public Result export(ExportJob job) throws IOException {
+        String url = String.format("http://%s:%d%s", config.getServerHost(), config.getApiPort(), job.getEndpoint());
+        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+        conn.setRequestMethod("GET");
+
+        Path partFile = null;
+        Path partSplit = null;
+        try {
+            int responseCode = conn.getResponseCode();
+            if (responseCode != 200) {
+                throw new ApiStatusException(responseCode);
+            }
+
+            partFile = createPartFile();
+            partSplit = partFile.resolveSibling(partFile.getFileName() + ".zpl.part");
+            MessageDigest sha256 = newSha256();
+            SplitOutcome split = null;
+            CountingInputStream body = new CountingInputStream(conn.getInputStream());
+            try (Reader in = new InputStreamReader(body, StandardCharsets.UTF_8);
+                 Writer out = new BufferedWriter(new OutputStreamWriter(
+                         new DigestOutputStream(Files.newOutputStream(partFile), sha256), StandardCharsets.UTF_8))) {
+                if (splitter.isEnabled()) {
+                    split = splitWhileSaving(in, out, job.getFormat(), partSplit);
+                } else {
+                    in.transferTo(out);
+                }
+            }
+
+            // A dropped connection can look like a normal end of stream
+            long expected = conn.getContentLengthLong();
+            if (expected >= 0 && body.count != expected) {
+                throw new IOException("Incomplete download: " + body.count + " of " + expected + " bytes");
+            }
+
+            boolean withSplit = split != null && split.error == null;
+            Path filePath = publish(partFile, withSplit ? partSplit : null, job);
+            partFile = null;
+            if (withSplit) {
+                // The (empty) split output name was claimed together with the file name
+                try {
+                    moveSplitOutput(partSplit, splitter.outputFor(filePath));
+                    partSplit = null;
+                } catch (IOException e) {
+                    split.error = "could not move output: " + e.getMessage();
+                }
+            }
+
+            index.add(job, filePath, Files.size(filePath), HexFormat.of().formatHex(sha256.digest()));
+            return split == null
+                    ? new Result(filePath, -1, null)
+                    : new Result(filePath, split.labels, split.error);
+        } finally {
+            conn.disconnect();
+            deleteQuietly(partFile);
+            deleteQuietly(partSplit);
+        }
+    }
+
+    /**
+     * Label count or error of the split stage.
+     */
+    private static class SplitOutcome {
+        int labels;
+        String error;
+    }
+
+    /**
+     * Copies the response to the file and feeds the same characters to the ZPL splitter.
+     * A split error is returned in the outcome; the export file itself is still saved completely.
+     */
+    private SplitOutcome splitWhileSaving(Reader in, Writer out, String format, Path splitOutput) throws IOException {
+        TeeReader tee = new TeeReader(in, out);
+        SplitOutcome outcome = new SplitOutcome();
+        try {
+            outcome.labels = splitter.split(new BufferedReader(tee), format, splitOutput);
+        } catch (IOException e) {
+            if (tee.writeFailed) {
+                throw e;
+            }
+            outcome.error = e.getMessage();
+        } catch (RuntimeException e) {
+            // A parser bug must not cost the export itself
+            outcome.error = e.toString();
+        }
+        tee.transferTo(Writer.nullWriter());
+        return outcome;
+    }
+
+    /**
+     * Reader that writes everything it reads to a second Writer.
+     */
+    private static class TeeReader extends Reader {
+        private final Reader in;
+        private final Writer copy;
+        boolean writeFailed;
+
+        TeeReader(Reader in, Writer copy) {
+            this.in = in;
+            this.copy = copy;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            int n = in.read(cbuf, off, len);
+            if (n > 0) {
+                try {
+                    copy.write(cbuf, off, n);
+                } catch (IOException e) {
+                    writeFailed = true;
+                    throw e;
+                }
+            }
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Counts the bytes read from the response body.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e); // required on every JVM
+        }
+    }
+
+    /**
+     * Deletes temp files (export_*.part, and the split output export_*.part.zpl.part) that
+     * downloads left behind when the application was killed. Only files older than this
+     * client are touched, so downloads started in the meantime are safe.
+     * @return number of files/folders deleted
+     */
+    public int deleteStaleParts() {
+        Path exportDir = Paths.get(config.getExportFolder());
+        if (!Files.isDirectory(exportDir)) {
+            return 0;
+        }
+        int count = 0;
+        try (DirectoryStream<Path> parts = Files.newDirectoryStream(exportDir, "export_*.part")) {
+            for (Path part : parts) {
+                if (Files.getLastModifiedTime(part).toMillis() < createdMillis) {
+                    deleteQuietly(part);
+                    count++;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error removing stale downloads: " + e.getMessage());
+        }
+        return count;
+    }
+
+    /**
+     * Creates the temporary download file in the export folder.
+     * Creates folder if it doesn't exist.
+     */
+    private Path createPartFile() throws IOException {
+        // Create export folder if not exists
+        Path exportDir = Paths.get(config.getExportFolder());
+        if (!Files.exists(exportDir)) {
+            Files.createDirectories(exportDir);
+        }
+        return Files.createTempFile(exportDir, "export_", ".part");
+    }
+
+    /**
+     * Moves a complete download to its final name in the export folder.
+     * Name: export_yyyyMMdd_HHmmss_{tag}.{csv|json}, e.g. export_20250115_143000_M0001444_P3.csv
+     * @param partSplit split output to be published as well, or null - its final name
+     *                  ({@link ZplLabelSplitter#outputFor}) is claimed together with the file name
+     */
+    private Path publish(Path partFile, Path partSplit, ExportJob job) throws IOException {
+        // Generate filename with timestamp
+        String timestamp = LocalDateTime.now().format(FILE_TIME_FORMAT);
+        String extension = job.getFormat().equals("json") ? ".json" : ".csv";
+        String base = "export_" + timestamp + "_" + job.getFileTag();
+
+        // The same job can finish twice within one second (and CSV/JSON share the split
+        // output name), so never overwrite: claim free names with createFile/createDirectory,
+        // then replace the empty claim (see moveSplitOutput for the split folder)
+        for (int n = 0; ; n++) {
+            String filename = base + (n == 0 ? "" : "_" + n) + extension;
+            Path filePath = partFile.resolveSibling(filename);
+            try {
+                Files.createFile(filePath);
+            } catch (FileAlreadyExistsException e) {
+                continue; // Try next counter
+            }
+            if (partSplit != null) {
+                Path splitPath = splitter.outputFor(filePath);
+                try {
+                    if (Files.isDirectory(partSplit)) {
+                        Files.createDirectory(splitPath);
+                    } else {
+                        Files.createFile(splitPath);
+                    }
+                } catch (FileAlreadyExistsException e) {
+                    deleteQuietly(filePath);
+                    continue; // Try next counter
+                }
+            }
+            try {
+                return Files.move(partFile, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                deleteQuietly(filePath);
+                if (partSplit != null) {
+                    deleteQuietly(splitter.outputFor(filePath));
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Moves the split output onto its claimed (empty) name.
+     * A folder (label/position mode) cannot replace another folder by a move on Windows -
+     * MoveFileEx with REPLACE_EXISTING fails for directories - so the empty claimed folder
+     * is deleted and the output renamed into its place. On failure the claim is gone.
+     */
+    private static void moveSplitOutput(Path partSplit, Path splitPath) throws IOException {
+        if (Files.isDirectory(partSplit)) {
+            Files.delete(splitPath);
+            Files.move(partSplit, splitPath);
+            return;
+        }
+        try {
+            Files.move(partSplit, splitPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            deleteQuietly(splitPath);
+            throw e;
+        }
+    }
+
+    /**
+     * Deletes a leftover temp file or folder (split output), ignoring errors.
+     */
+    private static void deleteQuietly(Path path) {
+        if (path == null || !Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> tree = Files.walk(path)) {
+            tree.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try {
+                    Files.delete(p);
+                } catch (IOException e) {
+                    System.err.println("Could not delete " + p + ": " + e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("Could not delete " + path + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package de.lebo.keyboard_bridge;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Local index of past exports, so files can be found without calling the API again.
+ * <p>
+ * Every saved export is appended as one tab-separated line to export_index.tsv in the
+ * export folder (time, kind, Auftrag, Position, barcode range, format, file, size, SHA-256).
+ * The file is only ever appended to; at startup it is read once into hash maps keyed by
+ * Auftrag, Auftrag/Position and range barcodes. Lookups are then in-memory.
+ */
+public class ExportIndex {
+
+    private static final String INDEX_FILE = "export_index.tsv";
+    private static final DateTimeFormatter DISPLAY_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss");
+    // Search input "M0001444/3", "M0001444;3" or "M0001444 3"
+    private static final Pattern POSITION_SEPARATOR = Pattern.compile("[/;,\\t ]+");
+
+    /**
+     * One indexed export file.
+     */
+    public static class Entry {
+        private final LocalDateTime time;
+        private final ExportJob job;
+        private final Path file;
+        private final long size;
+        private final String sha256;
+
+        Entry(LocalDateTime time, ExportJob job, Path file, long size, String sha256) {
+            this.time = time;
+            this.job = job;
+            this.file = file;
+            this.size = size;
+            this.sha256 = sha256;
+        }
+
+        public LocalDateTime getTime() {
+            return time;
+        }
+
+        public ExportJob getJob() {
+            return job;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+
+        /**
+         * Display text for the search result list.
+         */
+        @Override
+        public String toString() {
+            return String.format("%s  %s  (%,d B)", time.format(DISPLAY_FORMAT), job.describe(), size);
+        }
+    }
+
+    private final Path indexFile;
+    private final Map<String, List<Entry>> byKey = new HashMap<>();
+    private final List<Entry> ranges = new ArrayList<>();
+    private int size;
+    private volatile Runnable onAdded = () -> { };
+
+    public ExportIndex(AppConfig config) {
+        this.indexFile = Paths.get(config.getExportFolder()).resolve(INDEX_FILE);
+    }
+
+    /**
+     * Called after every {@link #add}, on the exporting thread.
+     */
+    public void setOnAdded(Runnable onAdded) {
+        this.onAdded = onAdded;
+    }
+
+    /**
+     * Rebuilds the in-memory index from the index file.
+     * Malformed lines are skipped.
+     * @return number of entries loaded
+     */
+    public synchronized int load() {
+        byKey.clear();
+        ranges.clear();
+        size = 0;
+        if (!Files.exists(indexFile)) {
+            return 0;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Entry entry = parseLine(line);
+                if (entry != null) {
+                    addToMemory(entry);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading export index: " + e.getMessage());
+        }
+        return size;
+    }
+
+    /**
+     * Records a saved export: appended to the index file and added to memory.
+     */
+    public void add(ExportJob job, Path file, long fileSize, String sha256) {
+        addAndAppend(job, file, fileSize, sha256);
+        onAdded.run();
+    }
+
+    private synchronized void addAndAppend(ExportJob job, Path file, long fileSize, String sha256) {
+        Entry entry = new Entry(LocalDateTime.now(), job, file.toAbsolutePath(), fileSize, sha256);
+        addToMemory(entry);
+
+        String line = String.join("\t",
+                entry.time.toString(),
+                job.getKind().name(),
+                job.getAuftrag(),
+                job.getPosition(),
+                job.getStartBarcode(),
+                job.getEndBarcode(),
+                job.getFormat(),
+                entry.file.toString(),
+                String.valueOf(fileSize),
+                sha256) + System.lineSeparator();
+        try {
+            Files.writeString(indexFile, line, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Error writing export index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Finds past exports, newest first. In-memory only - files may have been deleted
+     * since, callers check before opening one.
+     * Accepts an Auftrag ("M0001444"), Auftrag + Position ("M0001444/3")
+     * or a barcode, which also matches every range that contains it.
+     */
+    public synchronized List<Entry> search(String query) {
+        List<Entry> result = new ArrayList<>();
+        String text = query.trim().toUpperCase(Locale.ROOT);
+        if (text.isEmpty()) {
+            return result;
+        }
+
+        String[] parts = POSITION_SEPARATOR.split(text);
+        if (parts.length == 2) {
+            result.addAll(byKey.getOrDefault(positionKey(parts[0], parts[1]), List.of()));
+        } else {
+            result.addAll(byKey.getOrDefault(auftragKey(text), List.of()));
+            if (isBarcode(text)) {
+                for (Entry entry : ranges) {
+                    if (compareBarcodes(entry.job.getStartBarcode(), text) <= 0
+                            && compareBarcodes(text, entry.job.getEndBarcode()) <= 0) {
+                        result.add(entry);
+                    }
+                }
+            }
+        }
+
+        result.sort(Comparator.comparing(Entry::getTime).reversed());
+        return result;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void addToMemory(Entry entry) {
+        ExportJob job = entry.job;
+        if (job.getKind() == ExportJob.Kind.RANGE) {
+            ranges.add(entry);
+        } else {
+            byKey.computeIfAbsent(auftragKey(job.getAuftrag()), k -> new ArrayList<>()).add(entry);
+            if (!job.getPosition().isEmpty()) {
+                byKey.computeIfAbsent(positionKey(job.getAuftrag(), job.getPosition()), k -> new ArrayList<>()).add(entry);
+            }
+        }
+        size++;
+    }
+
+    private static Entry parseLine(String line) {
+        String[] f = line.split("\t", -1);
+        if (f.length != 10) {
+            return null;
+        }
+        try {
+            ExportJob job = ExportJob.Kind.valueOf(f[1]) == ExportJob.Kind.RANGE
+                    ? ExportJob.range(f[4], f[5], f[6])
+                    : ExportJob.auftrag(f[2], f[3], f[6]);
+            return new Entry(LocalDateTime.parse(f[0]), job, Paths.get(f[7]), Long.parseLong(f[8]), f[9]);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String auftragKey(String auftrag) {
+        return auftrag.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static String positionKey(String auftrag, String position) {
+        return auftragKey(auftrag) + "/" + position.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static boolean isBarcode(String text) {
+        return text.chars().allMatch(Character::isDigit);
+    }
+
+    /**
+     * Numeric comparison of digit strings of any length.
+     */
+    static int compareBarcodes(String a, String b) {
+        String x = a.replaceFirst("^0+(?=.)", "");
+        String y = b.replaceFirst("^0+(?=.)", "");
+        if (x.length() != y.length()) {
+            return Integer.compare(x.length(), y.length());
+        }
+        return x.compareTo(y);
+    }
+}
@@ -0,0 +1,174 @@
+package de.lebo.keyboard_bridge;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A single ZPL export request: either an Auftrag (optionally with Position)
+ * or a barcode range, in CSV or JSON format.
+ * Knows its REST endpoint and a one-line text form used for the bulk queue file.
+ */
+public class ExportJob {
+
+    public enum Kind { AUFTRAG, RANGE }
+
+    // Bulk input: "9029190001-9029190010" or "9029190001..9029190010"
+    private static final Pattern RANGE_PATTERN = Pattern.compile("^(\\d+)\\s*(?:-|\\.\\.)\\s*(\\d+)$");
+    // Bulk input: "M0001444", "M0001444;3", "M0001444/3", "M0001444 3", "M0001444,3"
+    // (same separators as the export history search)
+    private static final Pattern SEPARATOR = Pattern.compile("[/;,\\t ]+");
+    // Auftrag and Position go into the URL path - no /, ?, # or other special characters
+    private static final Pattern TOKEN = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private final Kind kind;
+    private final String auftrag;
+    private final String position;
+    private final String startBarcode;
+    private final String endBarcode;
+    private final String format;
+
+    private ExportJob(Kind kind, String auftrag, String position,
+                      String startBarcode, String endBarcode, String format) {
+        this.kind = kind;
+        this.auftrag = auftrag;
+        this.position = position;
+        this.startBarcode = startBarcode;
+        this.endBarcode = endBarcode;
+        this.format = format.equals("json") ? "json" : "csv";
+    }
+
+    /**
+     * Creates an Auftrag export. Position may be empty.
+     */
+    public static ExportJob auftrag(String auftrag, String position, String format) {
+        return new ExportJob(Kind.AUFTRAG, auftrag, position == null ? "" : position, "", "", format);
+    }
+
+    /**
+     * Creates a barcode range export.
+     */
+    public static ExportJob range(String startBarcode, String endBarcode, String format) {
+        return new ExportJob(Kind.RANGE, "", "", startBarcode, endBarcode, format);
+    }
+
+    /**
+     * Parses one line of pasted bulk input.
+     * @return the job, or null for blank lines and comments (#)
+     * @throws IllegalArgumentException if the line cannot be understood
+     */
+    public static ExportJob parse(String line, String format) {
+        String text = line.trim();
+        if (text.isEmpty() || text.startsWith("#")) {
+            return null;
+        }
+
+        Matcher range = RANGE_PATTERN.matcher(text);
+        if (range.matches()) {
+            return range(range.group(1), range.group(2), format);
+        }
+
+        String[] parts = SEPARATOR.split(text);
+        if (parts.length > 2) {
+            throw new IllegalArgumentException("Invalid line: " + text);
+        }
+        for (String part : parts) {
+            if (!TOKEN.matcher(part).matches()) {
+                throw new IllegalArgumentException("Invalid characters in line: " + text);
+            }
+        }
+        return auftrag(parts[0], parts.length > 1 ? parts[1] : "", format);
+    }
+
+    /**
+     * Restores a job written by {@link #toLine()}.
+     */
+    public static ExportJob fromLine(String line) {
+        String[] parts = line.split(";", -1);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Invalid queue entry: " + line);
+        }
+        Kind kind = Kind.valueOf(parts[0]);
+        return kind == Kind.RANGE
+                ? range(parts[1], parts[2], parts[3])
+                : auftrag(parts[1], parts[2], parts[3]);
+    }
+
+    /**
+     * Serializes the job to a single line (KIND;a;b;format).
+     */
+    public String toLine() {
+        return kind == Kind.RANGE
+                ? kind + ";" + startBarcode + ";" + endBarcode + ";" + format
+                : kind + ";" + auftrag + ";" + position + ";" + format;
+    }
+
+    /**
+     * Returns the REST endpoint for this job.
+     * CSV:  /api/export/auftrag/{nr}[/pos/{pos}]  or /api/export/range?startBarcode=X&endBarcode=Y
+     * JSON: same path with /json
+     */
+    public String getEndpoint() {
+        String json = format.equals("json") ? "/json" : "";
+        if (kind == Kind.RANGE) {
+            return String.format("/api/export/range%s?startBarcode=%s&endBarcode=%s", json, startBarcode, endBarcode);
+        }
+        if (!position.isEmpty()) {
+            return String.format("/api/export/auftrag/%s/pos/%s%s", auftrag, position, json);
+        }
+        return String.format("/api/export/auftrag/%s%s", auftrag, json);
+    }
+
+    /**
+     * Human readable description for the log.
+     */
+    public String describe() {
+        String fmt = " [" + format.toUpperCase() + "]";
+        if (kind == Kind.RANGE) {
+            return "Range " + startBarcode + " to " + endBarcode + fmt;
+        }
+        if (!position.isEmpty()) {
+            return "Auftrag=" + auftrag + ", Position=" + position + fmt;
+        }
+        return "Auftrag=" + auftrag + fmt;
+    }
+
+    /**
+     * Short, file-name safe tag, e.g. "M0001444_P3" or "9029190001-9029190010".
+     */
+    public String getFileTag() {
+        String tag;
+        if (kind == Kind.RANGE) {
+            tag = startBarcode + "-" + endBarcode;
+        } else if (!position.isEmpty()) {
+            tag = auftrag + "_P" + position;
+        } else {
+            tag = auftrag;
+        }
+        return tag.replaceAll("[^A-Za-z0-9_-]", "_");
+    }
+
+    // Getters
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getAuftrag() {
+        return auftrag;
+    }
+
+    public String getPosition() {
+        return position;
+    }
+
+    public String getStartBarcode() {
+        return startBarcode;
+    }
+
+    public String getEndBarcode() {
+        return endBarcode;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+}
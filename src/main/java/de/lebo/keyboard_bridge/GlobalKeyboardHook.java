@@ -27,6 +27,7 @@ public class GlobalKeyboardHook {
     // Barcode buffering
     private final StringBuilder buffer = new StringBuilder();
     private final Consumer<String> onBarcodeScanned; // Callback when barcode is complete
+    private final Runnable onInstalled;              // Callback when hook is ready for scans
 
     // Scanner detection: scanners type very fast (< 50ms between keys)
     // Human typing is slower (> 150ms between keys)
@@ -38,7 +39,17 @@ public class GlobalKeyboardHook {
      * @param onBarcodeScanned Callback function invoked when a complete barcode is detected
      */
     public GlobalKeyboardHook(Consumer<String> onBarcodeScanned) {
+        this(onBarcodeScanned, () -> { });
+    }
+
+    /**
+     * Creates a new GlobalKeyboardHook.
+     * @param onBarcodeScanned Callback function invoked when a complete barcode is detected
+     * @param onInstalled Callback invoked on the hook thread once the hook is installed
+     */
+    public GlobalKeyboardHook(Consumer<String> onBarcodeScanned, Runnable onInstalled) {
         this.onBarcodeScanned = onBarcodeScanned;
+        this.onInstalled = onInstalled;
     }
 
     /**
@@ -93,6 +104,7 @@ public class GlobalKeyboardHook {
                 System.err.println("Failed to install keyboard hook!");
                 return;
             }
+            onInstalled.run();
 
             // Windows message loop - required for hook to receive events
             MSG msg = new MSG();
@@ -1,23 +1,32 @@
 package de.lebo.keyboard_bridge;
 
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.image.WritableImage;
 import javafx.scene.layout.*;
-import javafx.scene.paint.Color;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 import java.io.*;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * IMA Keyboard Bridge Application.
@@ -31,10 +40,20 @@ public class ImaKeyboardBridgeApp extends Application {
     private TextArea logArea;
     private Label statusLabel;
     private Label lastBarcodeLabel;
+    private Label laneLabel;
     private TextField auftragField;
     private TextField positionField;
     private TextField startBarcodeField;
     private TextField endBarcodeField;
+    private TextArea bulkInputArea;
+    private ProgressBar bulkProgress;
+    private Label bulkProgressLabel;
+    private Button bulkCsvButton;
+    private Button bulkJsonButton;
+    private Button resumeBulkButton;
+    private Button cancelBulkButton;
+    private TextField historySearchField;
+    private ListView<ExportIndex.Entry> historyList;
 
     //Global keyboard hook
     private GlobalKeyboardHook keyboardHook;
@@ -42,10 +61,23 @@ public class ImaKeyboardBridgeApp extends Application {
     //Configuration (loaded from config.properties)
     private final AppConfig config = AppConfig.getInstance();
     private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
-    private static final DateTimeFormatter FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    //Background work: scans, exports and bulk jobs in priority lanes
+    private final LaneScheduler scheduler = new LaneScheduler(config);
+
+    //Export
+    private final ExportIndex exportIndex = new ExportIndex(config);
+    private final ExportClient exportClient = new ExportClient(config, exportIndex);
+    private final BulkExportQueue bulkQueue = new BulkExportQueue(config, exportClient, scheduler);
 
     @Override
     public void start (Stage stage) {
+        StartupTimer.mark("toolkit ready");
+
+        // Install the hook first - it runs on its own thread while the UI is built.
+        // Scans arriving early are queued via Platform.runLater until start() returns.
+        startGlobalHook();
+
         VBox root = new VBox(15);
         root.setPadding(new Insets(15));
         root.setStyle("-fx-background-color: #f5f5f5;");
@@ -59,6 +91,9 @@ public class ImaKeyboardBridgeApp extends Application {
         statusLabel = new Label("Aktiv");
         statusLabel.setStyle("-fx-text-fill: green; -fx-font-weight: bold;");
         statusBar.getChildren().addAll(new Label("Status:"), statusLabel);
+        laneLabel = new Label("Warteschlange: -");
+        laneLabel.setStyle("-fx-text-fill: #666; -fx-font-size: 11px;");
+        VBox statusBox = new VBox(2, statusBar, laneLabel);
 
         //Barcode Scanner Section
         VBox barcodeSection = createSection("Barcodeleser (Globaler Hook)");
@@ -120,6 +155,68 @@ public class ImaKeyboardBridgeApp extends Application {
 
         ((VBox) rangeSection).getChildren().addAll(startRow, endRow, rangeButtonRow);
 
+        // Bulk Export Section
+        VBox bulkSection = createSection("Sammel-Export");
+        bulkInputArea = new TextArea();
+        bulkInputArea.setPromptText("Eine Zeile pro Auftrag: M0001444 / M0001444;3 / 9029190001-9029190010");
+        bulkInputArea.setPrefRowCount(4);
+
+        HBox bulkButtonRow = new HBox(10);
+        Button btnBulkFile = new Button("Datei laden...");
+        bulkCsvButton = new Button("CSV Export");
+        bulkJsonButton = new Button("JSON Export");
+        resumeBulkButton = new Button("Fortsetzen");
+        resumeBulkButton.setDisable(true);
+        cancelBulkButton = new Button("Abbrechen");
+        cancelBulkButton.setDisable(true);
+        btnBulkFile.setOnAction(e -> loadBulkFile(stage));
+        bulkCsvButton.setOnAction(e -> startBulkExport("csv"));
+        bulkJsonButton.setOnAction(e -> startBulkExport("json"));
+        resumeBulkButton.setOnAction(e -> resumeBulkExport());
+        cancelBulkButton.setOnAction(e -> {
+            bulkQueue.cancel();
+            cancelBulkButton.setDisable(true);
+            log("Bulk export cancelling after running jobs...");
+        });
+        bulkButtonRow.getChildren().addAll(btnBulkFile, bulkCsvButton, bulkJsonButton);
+
+        HBox bulkProgressRow = new HBox(10);
+        bulkProgressRow.setAlignment(javafx.geometry.Pos.CENTER_LEFT);
+        bulkProgress = new ProgressBar(0);
+        bulkProgress.setPrefWidth(180);
+        bulkProgressLabel = new Label("-");
+        bulkProgressLabel.setMinWidth(60);
+        bulkProgressRow.getChildren().addAll(bulkProgress, bulkProgressLabel, resumeBulkButton, cancelBulkButton);
+
+        ((VBox) bulkSection).getChildren().addAll(bulkInputArea, bulkButtonRow, bulkProgressRow);
+
+        // Export History Section
+        VBox historySection = createSection("Export-Verlauf");
+        HBox historyRow = new HBox(10);
+        historyRow.setAlignment(javafx.geometry.Pos.CENTER_LEFT);
+        historySearchField = new TextField();
+        historySearchField.setPromptText("Auftrag, Auftrag/Position oder Barcode");
+        historySearchField.setPrefWidth(260);
+        historySearchField.setDisable(true); // until the index is loaded
+        Button btnOpenExport = new Button("Öffnen");
+        historyRow.getChildren().addAll(new Label("Suche:"), historySearchField, btnOpenExport);
+
+        historyList = new ListView<>();
+        historyList.setPrefHeight(90);
+        historySearchField.textProperty().addListener((obs, oldText, text) -> refreshHistory());
+        // New exports show up in the current search result
+        exportIndex.setOnAdded(() -> Platform.runLater(this::refreshHistory));
+        historySearchField.setOnAction(e -> openExport(historyList.getItems().isEmpty()
+                ? null : historyList.getItems().get(0)));
+        btnOpenExport.setOnAction(e -> openExport(historyList.getSelectionModel().getSelectedItem()));
+        historyList.setOnMouseClicked(event -> {
+            if (event.getClickCount() == 2) {
+                openExport(historyList.getSelectionModel().getSelectedItem());
+            }
+        });
+
+        ((VBox) historySection).getChildren().addAll(historyRow, historyList);
+
         // Log Section
         VBox logSection = createSection("Log");
         logArea = new TextArea();
@@ -130,14 +227,38 @@ public class ImaKeyboardBridgeApp extends Application {
         VBox.setVgrow(logArea, Priority.ALWAYS);
         ((VBox) logSection).getChildren().add(logArea);
 
-        root.getChildren().addAll(titleLabel, statusBar, barcodeSection, auftragSection, rangeSection, logSection);
+        root.getChildren().addAll(titleLabel, statusBox, barcodeSection, auftragSection, rangeSection, bulkSection, historySection, logSection);
         VBox.setVgrow(logSection, Priority.ALWAYS);
 
-        Scene scene = new Scene(root, 520, 680);
+        // Original window height; the sections scroll instead of growing the window
+        ScrollPane scrollPane = new ScrollPane(root);
+        scrollPane.setFitToWidth(true);
+        scrollPane.setFitToHeight(true); // log still fills a taller window
+        scrollPane.setHbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
+        scrollPane.setStyle("-fx-background: #f5f5f5; -fx-background-color: #f5f5f5;");
+
+        Scene scene = new Scene(scrollPane, 520, 680);
         stage.setTitle("IMA Tastaturbrücke");
         stage.setScene(scene);
         stage.setAlwaysOnTop(true);
-        stage.getIcons().add(createAppIcon());
+        StartupTimer.mark("scene built");
+
+        // Everything not needed for the first frame runs after it
+        // (listener is removed via runLater - not allowed while the pulse iterates the listeners)
+        scene.addPostLayoutPulseListener(new Runnable() {
+            private boolean fired = false;
+
+            @Override
+            public void run() {
+                if (fired) return;
+                fired = true;
+                StartupTimer.mark("first frame");
+                Platform.runLater(() -> {
+                    scene.removePostLayoutPulseListener(this);
+                    startDeferred(stage);
+                });
+            }
+        });
         stage.show();
 
         // Remove focus from all text fields at startup
@@ -158,9 +279,6 @@ public class ImaKeyboardBridgeApp extends Application {
             }
         });
 
-        // Start global keyboard hook
-        startGlobalHook();
-
         // Cleanup on close
         stage.setOnCloseRequest(e -> {
             if (keyboardHook != null) {
@@ -170,51 +288,66 @@ public class ImaKeyboardBridgeApp extends Application {
 
         log("Application started");
         log("Config: " + config.getSummary());
-        log("Global keyboard hook active");
+    }
+
+    /**
+     * Non-critical startup work, run once the first frame is on screen.
+     */
+    private void startDeferred(Stage stage) {
+        stage.getIcons().add(createAppIcon());
+
+        // Show lane queue depths (waiting/running) in the status bar
+        Timeline laneRefresh = new Timeline(new KeyFrame(Duration.seconds(1),
+                e -> laneLabel.setText("Warteschlange: " + scheduler.getQueueSummary())));
+        laneRefresh.setCycleCount(Animation.INDEFINITE);
+        laneRefresh.play();
+
+        checkPendingBulk();
+        loadExportIndex();
+
+        StartupTimer.mark("deferred done");
+        for (String phase : StartupTimer.getPhases()) {
+            log("Startup: " + phase);
+        }
+        String cdsStatus = StartupTimer.checkCdsArchive();
+        if (cdsStatus != null) {
+            log(cdsStatus);
+        }
     }
 
     /**
      * Creates a programmatic app icon (blue square with white "I" letter).
-     * Simple pixel-based approach that works before stage is shown.
+     * Pixels are filled in an ARGB buffer and written in one call.
      */
     private Image createAppIcon() {
         int size = 32;
-        WritableImage image = new WritableImage(size, size);
-        var writer = image.getPixelWriter();
-
-        Color blue = Color.web("#1976D2");
-        Color white = Color.WHITE;
+        int blue = 0xFF1976D2;
+        int white = 0xFFFFFFFF;
 
         // Fill blue background
-        for (int y = 0; y < size; y++) {
-            for (int x = 0; x < size; x++) {
-                writer.setColor(x, y, blue);
-            }
-        }
+        int[] pixels = new int[size * size];
+        Arrays.fill(pixels, blue);
 
         // Draw white "I" letter (simple block style)
-        // Top bar
-        for (int x = 8; x < 24; x++) {
-            for (int y = 6; y < 10; y++) {
-                writer.setColor(x, y, white);
-            }
-        }
-        // Vertical bar
-        for (int x = 13; x < 19; x++) {
-            for (int y = 10; y < 22; y++) {
-                writer.setColor(x, y, white);
-            }
-        }
-        // Bottom bar
-        for (int x = 8; x < 24; x++) {
-            for (int y = 22; y < 26; y++) {
-                writer.setColor(x, y, white);
-            }
-        }
+        fillRect(pixels, size, 8, 6, 24, 10, white);   // Top bar
+        fillRect(pixels, size, 13, 10, 19, 22, white); // Vertical bar
+        fillRect(pixels, size, 8, 22, 24, 26, white);  // Bottom bar
 
+        WritableImage image = new WritableImage(size, size);
+        image.getPixelWriter().setPixels(0, 0, size, size,
+                PixelFormat.getIntArgbInstance(), pixels, 0, size);
         return image;
     }
 
+    /**
+     * Fills the rectangle [x0,x1) x [y0,y1) of a row-major ARGB buffer.
+     */
+    private static void fillRect(int[] pixels, int width, int x0, int y0, int x1, int y1, int argb) {
+        for (int y = y0; y < y1; y++) {
+            Arrays.fill(pixels, y * width + x0, y * width + x1, argb);
+        }
+    }
+
     /**
      * Creates a styled section container.
      */
@@ -240,18 +373,26 @@ public class ImaKeyboardBridgeApp extends Application {
                 log("Barcode received: " + barcode);
                 sendBarcodeToSocket(barcode);
             });
+        }, () -> {
+            StartupTimer.mark("scan ready");
+            Platform.runLater(() -> log("Global keyboard hook active"));
         });
         keyboardHook.start();
     }
 
     /**
      * Sends barcode to IMA Print API via TCP socket.
+     * Connect and answer are bounded by server.timeout.ms, so a server that accepts
+     * but never answers cannot block the SCAN lane for later scans.
      */
     private void sendBarcodeToSocket(String barcode) {
-        new Thread(() -> {
-            try (Socket socket = new Socket(config.getServerHost(), config.getServerPort());
-                 PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
-                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()))) {
+        scheduler.submit(LaneScheduler.Lane.SCAN, () -> {
+            int timeout = config.getServerTimeoutMs();
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress(config.getServerHost(), config.getServerPort()), timeout);
+                socket.setSoTimeout(timeout);
+                PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
 
                 out.println(barcode);
                 String response = in.readLine();
@@ -266,13 +407,18 @@ public class ImaKeyboardBridgeApp extends Application {
                     }
                 });
 
+            } catch (SocketTimeoutException e) {
+                Platform.runLater(() -> {
+                    log("ERROR - No answer from server within " + timeout + " ms: " + barcode);
+                    setStatus("Zeitüberschreitung", "red");
+                });
             } catch (IOException e) {
                 Platform.runLater(() -> {
                     log("ERROR - Connection failed: " + e.getMessage());
                     setStatus("Keine Verbindung", "red");
                 });
             }
-        }).start();
+        });
     }
 
     /**
@@ -290,27 +436,10 @@ public class ImaKeyboardBridgeApp extends Application {
             return;
         }
 
-        String endpoint;
-        if (!position.isEmpty()) {
-            // Auftrag + Position
-            if (format.equals("json")) {
-                endpoint = String.format("/api/export/auftrag/%s/pos/%s/json", auftrag, position);
-                log("Exporting: Auftrag=" + auftrag + ", Position=" + position + " [JSON]");
-            } else {
-                endpoint = String.format("/api/export/auftrag/%s/pos/%s", auftrag, position);
-                log("Exporting: Auftrag=" + auftrag + ", Position=" + position + " [CSV]");
-            }
-        } else if (format.equals("json")) {
-            // Auftrag only -> JSON
-            endpoint = String.format("/api/export/auftrag/%s/json", auftrag);
-            log("Exporting: Auftrag=" + auftrag + " [JSON]");
-        } else {
-            // Auftrag only -> CSV
-            endpoint = String.format("/api/export/auftrag/%s", auftrag);
-            log("Exporting: Auftrag=" + auftrag + " [CSV]");
-        }
+        ExportJob job = ExportJob.auftrag(auftrag, position, format);
+        log("Exporting: " + job.describe());
 
-        callApiEndpoint(endpoint);
+        runExport(job);
     }
 
 
@@ -329,100 +458,250 @@ public class ImaKeyboardBridgeApp extends Application {
             return;
         }
 
-        String endpoint;
-        if (format.equals("json")) {
-            endpoint = String.format("/api/export/range/json?startBarcode=%s&endBarcode=%s", startBarcode, endBarcode);
-        } else {
-            endpoint = String.format("/api/export/range?startBarcode=%s&endBarcode=%s", startBarcode, endBarcode);
-        }
-        log("Exporting range: " + startBarcode + " to " + endBarcode + " [" + format.toUpperCase() + "]");
+        ExportJob job = ExportJob.range(startBarcode, endBarcode, format);
+        log("Exporting range: " + startBarcode + " to " + endBarcode + " [" + job.getFormat().toUpperCase() + "]");
 
-        callApiEndpoint(endpoint);
+        runExport(job);
     }
 
     /**
-     * Calls the API endpoint, reads response and saves to file.
+     * Runs a single export in the background and reports the result.
+     * Range exports can be large and go to the BULK lane, behind scans and single exports.
      */
-    private void callApiEndpoint(String endpoint) {
-        String format = endpoint.contains("/json") ? "json" : "csv";
-
-        new Thread(() -> {
+    private void runExport(ExportJob job) {
+        LaneScheduler.Lane lane = job.getKind() == ExportJob.Kind.RANGE
+                ? LaneScheduler.Lane.BULK
+                : LaneScheduler.Lane.EXPORT;
+        scheduler.submit(lane, () -> {
             try {
-                String url = String.format("http://%s:%d%s", config.getServerHost(), config.getApiPort(), endpoint);
-                java.net.URL apiUrl = new java.net.URL(url);
-                java.net.HttpURLConnection conn = (java.net.HttpURLConnection) apiUrl.openConnection();
-                conn.setRequestMethod("GET");
-
-                int responseCode = conn.getResponseCode();
-
-                if (responseCode == 200) {
-                    // Read response body
-                    StringBuilder content = new StringBuilder();
-                    try (BufferedReader reader = new BufferedReader(new InputStreamReader(conn.getInputStream()))) {
-                        String line;
-                        while ((line = reader.readLine()) != null) {
-                            content.append(line).append("\n");
-                        }
+                ExportClient.Result result = exportClient.export(job);
+                Platform.runLater(() -> {
+                    log("OK - Saved: " + result.getFile());
+                    logSplit(result);
+                    if (result.isSplitFailed()) {
+                        setStatus("Export OK, Split Fehler", "orange");
+                    } else {
+                        setStatus("Export OK", "green");
                     }
-
-                    // Save to file
-                    String savedPath = saveExportToFile(content.toString(), format);
-
-                    Platform.runLater(() -> {
-                        if (savedPath != null) {
-                            log("OK - Saved: " + savedPath);
-                            setStatus("Export OK", "green");
-                        } else {
-                            log("ERROR - Could not save file");
-                            setStatus("Speicherfehler", "red");
-                        }
-                    });
-                } else {
-                    Platform.runLater(() -> {
-                        if (responseCode == 404) {
-                            log("ERROR - Data not found (404)");
-                            setStatus("Nicht gefunden", "orange");
-                        } else {
-                            log("ERROR - API error: " + responseCode);
-                            setStatus("API Fehler", "red");
-                        }
-                    });
-                }
-
+                });
+            } catch (ExportClient.ApiStatusException e) {
+                Platform.runLater(() -> {
+                    if (e.getStatusCode() == 404) {
+                        log("ERROR - Data not found (404)");
+                        setStatus("Nicht gefunden", "orange");
+                    } else {
+                        log("ERROR - API error: " + e.getStatusCode());
+                        setStatus("API Fehler", "red");
+                    }
+                });
             } catch (Exception e) {
                 Platform.runLater(() -> {
                     log("ERROR: " + e.getMessage());
                     setStatus("Fehler", "red");
                 });
             }
-        }).start();
+        });
     }
 
     /**
-     * Saves export content to file in EXPORT_FOLDER.
-     * Creates folder if it doesn't exist.
+     * Logs the ZPL split outcome of an export, if splitting is enabled.
      */
-    private String saveExportToFile(String content, String format) {
-        try {
-            // Create export folder if not exists
-            Path exportDir = Paths.get(config.getExportFolder());
-            if (!Files.exists(exportDir)) {
-                Files.createDirectories(exportDir);
+    private void logSplit(ExportClient.Result result) {
+        String split = result.getSplitSummary();
+        if (split != null) {
+            log((result.isSplitFailed() ? "ERROR - " : "OK - ") + split);
+        }
+    }
+
+    /**
+     * Parses the bulk input and starts the bulk export queue.
+     * One job per line: "M0001444", "M0001444;3" or "9029190001-9029190010".
+     */
+    private void startBulkExport(String format) {
+        if (bulkQueue.isRunning()) {
+            log("Error: Bulk export already running");
+            return;
+        }
+
+        List<ExportJob> jobs = new ArrayList<>();
+        int lineNo = 0;
+        for (String line : bulkInputArea.getText().split("\\R")) {
+            lineNo++;
+            try {
+                ExportJob job = ExportJob.parse(line, format);
+                if (job != null) {
+                    jobs.add(job);
+                }
+            } catch (IllegalArgumentException e) {
+                log("Error: Bulk line " + lineNo + " ignored: " + line.trim());
             }
+        }
 
-            // Generate filename with timestamp
-            String timestamp = LocalDateTime.now().format(FILE_TIME_FORMAT);
-            String extension = format.equals("json") ? ".json" : ".csv";
-            String filename = "export_" + timestamp + extension;
+        if (jobs.isEmpty()) {
+            log("Error: No bulk jobs entered");
+            setStatus("Keine Aufträge", "red");
+            return;
+        }
+
+        int unfinished = bulkQueue.loadPending().size();
+        if (unfinished > 0) {
+            log("Unfinished jobs of the interrupted bulk export are included: " + unfinished);
+        }
+        runBulk(jobs);
+    }
+
+    /**
+     * Starts the bulk queue and wires progress to the UI.
+     * Unfinished jobs of an interrupted run are included by the queue.
+     */
+    private void runBulk(List<ExportJob> jobs) {
+        setStatus("Sammel-Export läuft", "blue");
+        bulkProgress.setProgress(0);
+        setBulkControlsRunning(true);
+        resumeBulkButton.setText("Fortsetzen");
+
+        // Progress callbacks arrive via runLater, after this method has returned
+        int total = bulkQueue.start(jobs, new BulkExportQueue.Listener() {
+            @Override
+            public void onJobFinished(ExportJob job, ExportClient.Result result, Exception error, int done, int total) {
+                Platform.runLater(() -> {
+                    if (error == null) {
+                        log("OK - " + job.describe() + " -> " + result.getFile().getFileName());
+                        logSplit(result);
+                    } else {
+                        log("ERROR - " + job.describe() + ": " + error.getMessage());
+                    }
+                    bulkProgress.setProgress((double) done / total);
+                    bulkProgressLabel.setText(done + " / " + total);
+                });
+            }
 
-            // Write file
-            Path filePath = exportDir.resolve(filename);
-            Files.writeString(filePath, content);
+            @Override
+            public void onRunFinished(int succeeded, int failed, boolean cancelled, Path report) {
+                Platform.runLater(() -> {
+                    log(String.format("Bulk export %s: %d OK, %d errors",
+                            cancelled ? "cancelled" : "finished", succeeded, failed));
+                    if (report != null) {
+                        log("Report: " + report);
+                    }
+                    log("Lanes: " + scheduler.getMetricsSummary());
+                    if (cancelled) {
+                        setStatus("Sammel-Export abgebrochen", "orange");
+                    } else if (failed > 0) {
+                        setStatus("Sammel-Export mit Fehlern", "red");
+                    } else {
+                        setStatus("Sammel-Export OK", "green");
+                    }
+                    setBulkControlsRunning(false);
+                    checkPendingBulk();
+                });
+            }
+        });
+        bulkProgressLabel.setText("0 / " + total);
+        log("Bulk export started: " + total + " jobs, parallelism " + config.getBulkParallelism());
+    }
 
-            return filePath.toString();
+    /**
+     * Loads bulk input lines from a text/CSV file into the bulk input area.
+     */
+    private void loadBulkFile(Stage stage) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Auftragsliste laden");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Text/CSV", "*.txt", "*.csv"),
+                new FileChooser.ExtensionFilter("Alle Dateien", "*.*"));
+        File file = chooser.showOpenDialog(stage);
+        if (file == null) {
+            return;
+        }
+        try {
+            bulkInputArea.setText(Files.readString(file.toPath()));
+            log("Bulk list loaded: " + file);
         } catch (IOException e) {
-            return null;
+            log("ERROR - Could not read file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks for a bulk run interrupted by an application restart.
+     */
+    private void checkPendingBulk() {
+        List<ExportJob> pending = bulkQueue.loadPending();
+        if (pending.isEmpty()) {
+            return;
+        }
+        log("Unfinished bulk export found: " + pending.size() + " jobs");
+        resumeBulkButton.setText("Fortsetzen (" + pending.size() + ")");
+        resumeBulkButton.setDisable(false);
+    }
+
+    /**
+     * Resumes the jobs left in the bulk queue file.
+     */
+    private void resumeBulkExport() {
+        if (bulkQueue.isRunning()) {
+            log("Error: Bulk export already running");
+            return;
+        }
+        if (bulkQueue.loadPending().isEmpty()) {
+            log("No unfinished bulk jobs");
+            resumeBulkButton.setText("Fortsetzen");
+            resumeBulkButton.setDisable(true);
+            return;
+        }
+        runBulk(List.of()); // the queue picks up the jobs from the queue file
+    }
+
+    /**
+     * Reads the export history index in the background and enables the search box.
+     * Also removes temp files of downloads interrupted by a previous crash.
+     */
+    private void loadExportIndex() {
+        Thread loader = new Thread(() -> {
+            int stale = exportClient.deleteStaleParts();
+            int count = exportIndex.load();
+            Platform.runLater(() -> {
+                if (stale > 0) {
+                    log("Removed " + stale + " unfinished download(s) of a previous run");
+                }
+                log("Export history: " + count + " entries");
+                historySearchField.setDisable(false);
+            });
+        }, "ExportIndexLoader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Re-runs the current history search.
+     */
+    private void refreshHistory() {
+        historyList.getItems().setAll(exportIndex.search(historySearchField.getText()));
+    }
+
+    /**
+     * Opens a past export with the default application for its file type.
+     */
+    private void openExport(ExportIndex.Entry entry) {
+        if (entry == null) {
+            return;
+        }
+        if (!Files.exists(entry.getFile())) {
+            log("ERROR - Export file no longer exists: " + entry.getFile());
+            return;
         }
+        log("Opening: " + entry.getFile());
+        getHostServices().showDocument(entry.getFile().toUri().toString());
+    }
+
+    /**
+     * Enables/disables bulk buttons depending on whether a run is active.
+     */
+    private void setBulkControlsRunning(boolean running) {
+        bulkCsvButton.setDisable(running);
+        bulkJsonButton.setDisable(running);
+        resumeBulkButton.setDisable(true);
+        cancelBulkButton.setDisable(!running);
     }
 
     /**
@@ -443,6 +722,7 @@ public class ImaKeyboardBridgeApp extends Application {
     }
 
     public static void main(String[] args) {
+        StartupTimer.mark("main");
         launch();
     }
 }
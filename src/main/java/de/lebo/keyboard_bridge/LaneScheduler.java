@@ -0,0 +1,224 @@
+package de.lebo.keyboard_bridge;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs background work in priority lanes so live scans are never stuck behind exports.
+ * <p>
+ * Lanes in priority order: SCAN (socket round trip of a scanned barcode),
+ * EXPORT (single Auftrag export), BULK (bulk jobs and barcode range exports).
+ * Each lane has its own concurrency limit. EXPORT and BULK additionally share a
+ * background limit, so large downloads cannot saturate the server connection;
+ * SCAN is not counted against it.
+ * <p>
+ * Aging: a lane that could have started a task but lost the free slot to another lane
+ * rises by one lane per agingMs until it starts a task again, so BULK work is never
+ * starved by a stream of exports. The clock runs per lane from the moment it is passed
+ * over, not per task from the moment it was queued - a bulk backlog queued at once does
+ * not age as a block and take every freed slot ahead of a new single export.
+ */
+public class LaneScheduler {
+
+    public enum Lane { SCAN, EXPORT, BULK }
+
+    /**
+     * A queued task with its enqueue time.
+     */
+    private static class Task {
+        final Lane lane;
+        final Runnable runnable;
+        final long enqueuedNanos = System.nanoTime();
+
+        Task(Lane lane, Runnable runnable) {
+            this.lane = lane;
+            this.runnable = runnable;
+        }
+    }
+
+    /**
+     * Per-lane queue, limit and wait-time statistics.
+     */
+    private static class LaneState {
+        final ArrayDeque<Task> queue = new ArrayDeque<>();
+        final int limit;
+        int running;
+        long started;
+        long totalWaitNanos;
+        long maxWaitNanos;
+        boolean passedOver;
+        long passedOverSince;
+
+        LaneState(int limit) {
+            this.limit = limit;
+        }
+    }
+
+    private final Map<Lane, LaneState> lanes = new EnumMap<>(Lane.class);
+    private final int backgroundLimit;
+    private final long agingNanos;
+    private int backgroundRunning;
+
+    private final ExecutorService workers = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "LaneWorker");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public LaneScheduler(AppConfig config) {
+        lanes.put(Lane.SCAN, new LaneState(config.getScanLaneLimit()));
+        lanes.put(Lane.EXPORT, new LaneState(config.getExportLaneLimit()));
+        lanes.put(Lane.BULK, new LaneState(config.getBulkParallelism()));
+        this.backgroundLimit = config.getBackgroundLimit();
+        this.agingNanos = config.getLaneAgingMs() * 1_000_000L;
+    }
+
+    /**
+     * Queues a task in the given lane. Runs as soon as the lane limits allow.
+     */
+    public synchronized void submit(Lane lane, Runnable task) {
+        lanes.get(lane).queue.addLast(new Task(lane, task));
+        dispatch();
+    }
+
+    /**
+     * Starts queued tasks while limits allow, best effective priority first.
+     */
+    private synchronized void dispatch() {
+        Task next;
+        while ((next = pickNext()) != null) {
+            LaneState state = lanes.get(next.lane);
+            state.queue.removeFirst();
+            state.running++;
+            if (next.lane != Lane.SCAN) {
+                backgroundRunning++;
+            }
+
+            long waited = System.nanoTime() - next.enqueuedNanos;
+            state.started++;
+            state.totalWaitNanos += waited;
+            state.maxWaitNanos = Math.max(state.maxWaitNanos, waited);
+
+            Task task = next;
+            workers.execute(() -> {
+                try {
+                    task.runnable.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Task in lane " + task.lane + " failed: " + e.getMessage());
+                } finally {
+                    finished(task.lane);
+                }
+            });
+        }
+    }
+
+    /**
+     * Chooses the runnable lane head with the lowest aged priority.
+     * Ties go to the lane with the higher base priority.
+     * Lanes that could have started but lose start (or keep) their aging clock.
+     * @return task to start, or null if nothing may start now
+     */
+    private Task pickNext() {
+        long now = System.nanoTime();
+        LaneState best = null;
+        long bestPriority = Long.MAX_VALUE;
+
+        for (Map.Entry<Lane, LaneState> entry : lanes.entrySet()) {
+            LaneState state = entry.getValue();
+            if (!canStart(entry.getKey(), state)) {
+                continue;
+            }
+            long aged = agingNanos > 0 && state.passedOver ? (now - state.passedOverSince) / agingNanos : 0;
+            long priority = Math.max(0, entry.getKey().ordinal() - aged);
+            if (priority < bestPriority) { // lanes are iterated in base priority order
+                best = state;
+                bestPriority = priority;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+
+        for (Map.Entry<Lane, LaneState> entry : lanes.entrySet()) {
+            LaneState state = entry.getValue();
+            if (state != best && !state.passedOver && canStart(entry.getKey(), state)) {
+                state.passedOver = true;
+                state.passedOverSince = now;
+            }
+        }
+        best.passedOver = false;
+        return best.queue.peekFirst();
+    }
+
+    private boolean canStart(Lane lane, LaneState state) {
+        if (state.queue.isEmpty() || state.running >= state.limit) {
+            return false;
+        }
+        return lane == Lane.SCAN || backgroundRunning < backgroundLimit;
+    }
+
+    private synchronized void finished(Lane lane) {
+        lanes.get(lane).running--;
+        if (lane != Lane.SCAN) {
+            backgroundRunning--;
+        }
+        dispatch();
+    }
+
+    /**
+     * Number of tasks waiting in a lane.
+     */
+    public synchronized int getQueueDepth(Lane lane) {
+        return lanes.get(lane).queue.size();
+    }
+
+    /**
+     * Average time tasks of a lane waited before starting, in milliseconds.
+     */
+    public synchronized long getAverageWaitMs(Lane lane) {
+        LaneState state = lanes.get(lane);
+        return state.started == 0 ? 0 : state.totalWaitNanos / state.started / 1_000_000L;
+    }
+
+    /**
+     * Longest time a task of a lane waited before starting, in milliseconds.
+     */
+    public synchronized long getMaxWaitMs(Lane lane) {
+        return lanes.get(lane).maxWaitNanos / 1_000_000L;
+    }
+
+    /**
+     * Returns queue depth / running count per lane for the status bar.
+     */
+    public synchronized String getQueueSummary() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<Lane, LaneState> entry : lanes.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(" | ");
+            }
+            sb.append(entry.getKey()).append(' ')
+                    .append(entry.getValue().queue.size()).append('/')
+                    .append(entry.getValue().running);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns wait-time statistics per lane for logging.
+     */
+    public synchronized String getMetricsSummary() {
+        StringBuilder sb = new StringBuilder();
+        for (Lane lane : Lane.values()) {
+            LaneState state = lanes.get(lane);
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(String.format("%s: %d started, queued %d, wait avg %dms max %dms",
+                    lane, state.started, state.queue.size(), getAverageWaitMs(lane), getMaxWaitMs(lane)));
+        }
+        return sb.toString();
+    }
+}
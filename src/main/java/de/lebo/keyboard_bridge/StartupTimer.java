@@ -0,0 +1,78 @@
+package de.lebo.keyboard_bridge;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the startup phases (JVM start, JavaFX toolkit, scene, first frame, hook).
+ * Each phase is printed to the console right away and kept so the UI log
+ * can show the full summary once the window is up.
+ */
+public final class StartupTimer {
+
+    private static final long JVM_START_MILLIS = ProcessHandle.current().info().startInstant()
+            .map(Instant::toEpochMilli)
+            .orElse(System.currentTimeMillis());
+
+    private static final List<String> phases = new ArrayList<>();
+    private static long lastMark = JVM_START_MILLIS;
+
+    private StartupTimer() {
+    }
+
+    /**
+     * Records the end of a startup phase.
+     * Thread-safe: the keyboard hook reports from its own thread.
+     */
+    public static synchronized void mark(String phase) {
+        long now = System.currentTimeMillis();
+        String line = String.format("%-16s +%4d ms  (%5d ms since JVM start)",
+                phase, now - lastMark, now - JVM_START_MILLIS);
+        lastMark = now;
+        phases.add(line);
+        System.out.println("Startup: " + line);
+    }
+
+    /**
+     * Returns the phases recorded so far.
+     */
+    public static synchronized List<String> getPhases() {
+        return new ArrayList<>(phases);
+    }
+
+    /**
+     * Prepares the AppCDS archive folder when started with the appcds profile
+     * (-Dappcds.archive). The JVM writes the archive on exit but does not create
+     * folders, and fails silently if it cannot write - so check it here.
+     * @return status line for the log, or null when AppCDS is not configured
+     */
+    public static String checkCdsArchive() {
+        String archive = System.getProperty("appcds.archive");
+        if (archive == null || archive.isBlank()) {
+            return null;
+        }
+        if (archive.contains("%") || !Paths.get(archive).isAbsolute()) {
+            // e.g. %ProgramData% not expanded because the image was not started via app.bat
+            return "WARNING - AppCDS archive path is not absolute: " + archive;
+        }
+        try {
+            Path path = Paths.get(archive);
+            Files.createDirectories(path.getParent());
+            if (Files.exists(path)) {
+                // The JVM may still reject it (other JDK build, changed classpath) - see -Xlog:cds
+                return "AppCDS archive present: " + path;
+            }
+            if (!Files.isWritable(path.getParent())) {
+                return "WARNING - AppCDS folder not writable: " + path.getParent();
+            }
+            return "AppCDS archive will be created on exit: " + path;
+        } catch (IOException | RuntimeException e) {
+            return "WARNING - AppCDS archive not usable (" + archive + "): " + e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,636 @@
+package de.lebo.keyboard_bridge;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+/**
+ * Optional post-processing of an export: splits the CSV/JSON response into the
+ * ZPL code of the single labels while it is being downloaded.
+ * <p>
+ * Both formats are parsed incrementally from a Reader - only the current CSV record
+ * or JSON object is held in memory, never the whole document. Labels are handed to
+ * a small pool of writer threads with bounded queues, so memory stays constant for
+ * exports of any size.
+ * <p>
+ * Modes (config key export.split):
+ * none     - disabled
+ * label    - one .zpl file per label
+ * position - one .zpl file per Auftrag/Position
+ * zpl      - all labels concatenated into one .zpl file
+ */
+public class ZplLabelSplitter {
+
+    public enum Mode { NONE, LABEL, POSITION, ZPL }
+
+    // Field roles in resolveFields order, most specific first
+    private static final String[] ROLE_NAMES = { "zpl", "barcode", "pos", "auftrag" };
+    private static final int ZPL_FIELD = 0, BARCODE_FIELD = 1, POS_FIELD = 2, AUFTRAG_FIELD = 3;
+    private static final Pattern WORD_BOUNDARY = Pattern.compile("[^A-Za-z0-9]+|(?<=[a-z0-9])(?=[A-Z])");
+
+    // Labels buffered per writer thread before the parser has to wait
+    private static final int QUEUE_PER_WRITER = 32;
+
+    /**
+     * One label extracted from the export.
+     */
+    public static class Label {
+        final int index;
+        final String auftrag;
+        final String position;
+        final String barcode;
+        final String zpl;
+
+        Label(int index, String auftrag, String position, String barcode, String zpl) {
+            this.index = index;
+            this.auftrag = auftrag;
+            this.position = position;
+            this.barcode = barcode;
+            this.zpl = zpl;
+        }
+    }
+
+    /**
+     * Receives labels from the parsers.
+     */
+    private interface LabelHandler {
+        void accept(Label label) throws IOException;
+    }
+
+    private final Mode mode;
+    private final int threads;
+
+    public ZplLabelSplitter(AppConfig config) {
+        this(config.getSplitMode(), config.getSplitThreads());
+    }
+
+    ZplLabelSplitter(Mode mode, int threads) {
+        this.mode = mode;
+        this.threads = threads;
+    }
+
+    public boolean isEnabled() {
+        return mode != Mode.NONE;
+    }
+
+    /**
+     * Where the labels of an export file go: the folder {base}_zpl for label/position,
+     * or the file {base}.zpl for zpl mode.
+     */
+    public Path outputFor(Path exportFile) {
+        String name = exportFile.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        return exportFile.resolveSibling(mode == Mode.ZPL ? base + ".zpl" : base + "_zpl");
+    }
+
+    /**
+     * Parses the export from the reader and writes the labels to the output.
+     * The reader is read to the end but not closed.
+     * @param format "csv" or "json"
+     * @param output folder (label/position mode) or .zpl file (zpl mode), see {@link #outputFor}
+     * @return number of labels written
+     */
+    public int split(Reader in, String format, Path output) throws IOException {
+        try (LabelWriter writer = new LabelWriter(output)) {
+            if (format.equals("json")) {
+                new JsonLabelParser(in, writer::write).parse();
+            } else {
+                new CsvLabelParser(in, writer::write).parse();
+            }
+            return writer.finish();
+        }
+    }
+
+    // ----------------------------------------------------------------------------------
+    // Writing
+    // ----------------------------------------------------------------------------------
+
+    /**
+     * Writes labels on striped single-thread executors.
+     * All labels for the same output file go to the same stripe, so appends stay in order.
+     */
+    private class LabelWriter implements AutoCloseable {
+        private final Path output; // folder, or the .zpl file in zpl mode
+        private final ThreadPoolExecutor[] stripes;
+        private final AtomicReference<IOException> error = new AtomicReference<>();
+        private BufferedWriter zplOut;
+        private int count;
+
+        LabelWriter(Path output) throws IOException {
+            this.output = output;
+
+            if (mode == Mode.ZPL) {
+                // One output stream: a single writer keeps the labels in order
+                zplOut = Files.newBufferedWriter(output, StandardCharsets.UTF_8);
+                stripes = new ThreadPoolExecutor[1];
+            } else {
+                Files.createDirectories(output);
+                stripes = new ThreadPoolExecutor[threads];
+            }
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i] = newStripe();
+            }
+        }
+
+        /**
+         * Single thread with a bounded queue; a full queue blocks the parser.
+         */
+        private ThreadPoolExecutor newStripe() {
+            return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(QUEUE_PER_WRITER),
+                    r -> {
+                        Thread t = new Thread(r, "ZplWriter");
+                        t.setDaemon(true);
+                        return t;
+                    },
+                    (r, executor) -> {
+                        try {
+                            executor.getQueue().put(r);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new RejectedExecutionException(e);
+                        }
+                    });
+        }
+
+        void write(Label label) throws IOException {
+            IOException failed = error.get();
+            if (failed != null) {
+                throw failed;
+            }
+            count++;
+
+            String key;
+            Path target;
+            switch (mode) {
+                case ZPL:
+                    key = "";
+                    target = output;
+                    break;
+                case POSITION:
+                    key = positionKey(label);
+                    target = output.resolve(sanitize(key) + ".zpl");
+                    break;
+                default:
+                    key = String.valueOf(label.index);
+                    target = output.resolve(String.format("label_%05d%s.zpl", label.index,
+                            label.barcode.isEmpty() ? "" : "_" + sanitize(label.barcode)));
+                    break;
+            }
+
+            String zpl = label.zpl.endsWith("\n") ? label.zpl : label.zpl + "\n";
+            int stripe = Math.floorMod(key.hashCode(), stripes.length);
+            stripes[stripe].execute(() -> {
+                if (error.get() != null) {
+                    return;
+                }
+                try {
+                    if (mode == Mode.ZPL) {
+                        zplOut.write(zpl);
+                    } else {
+                        Files.writeString(target, zpl, StandardCharsets.UTF_8,
+                                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                    }
+                } catch (IOException e) {
+                    error.compareAndSet(null, e);
+                }
+            });
+        }
+
+        /**
+         * Waits for all pending writes.
+         * @return number of labels written
+         */
+        int finish() throws IOException {
+            shutdown();
+            if (error.get() != null) {
+                throw error.get();
+            }
+            return count;
+        }
+
+        private void shutdown() {
+            for (ThreadPoolExecutor stripe : stripes) {
+                stripe.shutdown();
+            }
+            try {
+                for (ThreadPoolExecutor stripe : stripes) {
+                    stripe.awaitTermination(1, TimeUnit.MINUTES);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            shutdown();
+            if (zplOut != null) {
+                zplOut.close();
+            }
+        }
+    }
+
+    private static String positionKey(Label label) {
+        if (label.position.isEmpty()) {
+            return label.auftrag.isEmpty() ? "ohne_position" : label.auftrag;
+        }
+        return label.auftrag.isEmpty() ? "pos_" + label.position : label.auftrag + "_" + label.position;
+    }
+
+    /**
+     * Makes a value safe for use in a file name.
+     */
+    private static String sanitize(String value) {
+        return value.replaceAll("[^A-Za-z0-9_.-]", "_");
+    }
+
+    /**
+     * Maps the field names of a CSV header or JSON object (in document order) to the
+     * roles ZPL, Barcode, Position and Auftrag. An exact name ("pos") beats a whole word
+     * ("Position", "auftrags_nr") beats a substring; ties go to the first name.
+     * Roles are assigned most specific first and each name gets at most one role,
+     * so "auftragsNr" / "auftragsPosition" become Auftrag / Position.
+     * @return index into names per role, -1 if not found
+     */
+    private static int[] resolveFields(List<String> names) {
+        int[] cols = { -1, -1, -1, -1 };
+        boolean[] used = new boolean[names.size()];
+        for (int role = 0; role < ROLE_NAMES.length; role++) {
+            int best = 0;
+            for (int i = 0; i < names.size(); i++) {
+                int score = used[i] ? 0 : matchScore(names.get(i), ROLE_NAMES[role]);
+                if (score > best) {
+                    best = score;
+                    cols[role] = i;
+                }
+            }
+            if (cols[role] >= 0) {
+                used[cols[role]] = true;
+            }
+        }
+        return cols;
+    }
+
+    /**
+     * 3 = exact, 2 = a word of the name starts with the part, 1 = substring, 0 = no match.
+     * Words are split at non-alphanumerics and camelCase humps (case-insensitive).
+     */
+    private static int matchScore(String name, String part) {
+        String trimmed = name.trim();
+        String lower = trimmed.toLowerCase(Locale.ROOT);
+        if (lower.equals(part)) {
+            return 3;
+        }
+        for (String word : WORD_BOUNDARY.split(trimmed)) {
+            if (word.toLowerCase(Locale.ROOT).startsWith(part)) {
+                return 2;
+            }
+        }
+        return lower.contains(part) ? 1 : 0;
+    }
+
+    // ----------------------------------------------------------------------------------
+    // CSV
+    // ----------------------------------------------------------------------------------
+
+    /**
+     * Incremental CSV parser (RFC 4180 quoting, ZPL may span lines inside quotes).
+     * The delimiter (; , or tab) is taken from the first one found in the header.
+     * Columns are found by header name (see {@link #resolveFields}): zpl, pos, auftrag, barcode.
+     * Without a ZPL header column, the first field starting with ^XA is used.
+     */
+    private static class CsvLabelParser {
+        private final Reader in;
+        private final LabelHandler handler;
+        private int delimiter = 0;
+        private int pushback = -2;
+
+        CsvLabelParser(Reader in, LabelHandler handler) {
+            this.in = in;
+            this.handler = handler;
+        }
+
+        void parse() throws IOException {
+            List<String> header = readRecord();
+            if (header == null) {
+                return;
+            }
+
+            int[] cols = resolveFields(header);
+            int zplCol = cols[ZPL_FIELD], posCol = cols[POS_FIELD];
+            int auftragCol = cols[AUFTRAG_FIELD], barcodeCol = cols[BARCODE_FIELD];
+
+            int index = 0;
+            List<String> record = zplCol < 0 ? header : readRecord();
+            while (record != null) {
+                String zpl = zplCol >= 0 ? field(record, zplCol) : findZpl(record);
+                if (zpl != null && !zpl.isBlank()) {
+                    handler.accept(new Label(++index, field(record, auftragCol), field(record, posCol),
+                            field(record, barcodeCol), zpl));
+                }
+                record = readRecord();
+            }
+        }
+
+        private static String field(List<String> record, int col) {
+            return col >= 0 && col < record.size() ? record.get(col).trim() : "";
+        }
+
+        private static String findZpl(List<String> record) {
+            for (String value : record) {
+                if (value.trim().startsWith("^XA")) {
+                    return value.trim();
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Reads the next record.
+         * @return fields, or null at end of input
+         */
+        private List<String> readRecord() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean any = false;
+
+            int c;
+            while ((c = read()) != -1) {
+                any = true;
+                if (quoted) {
+                    if (c == '"') {
+                        int next = read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            pushback = next;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (isDelimiter(c)) {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    if (fields.isEmpty() && field.length() == 0) {
+                        continue; // skip blank lines
+                    }
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+
+            if (quoted) {
+                throw new IOException("Unterminated quoted CSV field");
+            }
+            if (!any || (c == -1 && fields.isEmpty() && field.length() == 0)) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private boolean isDelimiter(int c) {
+            if (delimiter == 0 && (c == ';' || c == ',' || c == '\t')) {
+                delimiter = c;
+            }
+            return c == delimiter;
+        }
+
+        private int read() throws IOException {
+            if (pushback != -2) {
+                int c = pushback;
+                pushback = -2;
+                return c;
+            }
+            return in.read();
+        }
+    }
+
+    // ----------------------------------------------------------------------------------
+    // JSON
+    // ----------------------------------------------------------------------------------
+
+    /**
+     * Incremental JSON parser without a document tree.
+     * Only the primitive fields of the objects currently open are kept. Every object
+     * with a zpl field is emitted as a label when it closes; Auftrag/Position/Barcode
+     * are taken from the object itself or, if missing, from the enclosing objects.
+     */
+    private static class JsonLabelParser {
+        private static final Pattern LITERAL = Pattern.compile("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?|true|false|null");
+
+        private final Reader in;
+        private final LabelHandler handler;
+        private final List<Map<String, String>> open = new ArrayList<>();
+        private int pushback = -2;
+        private int index = 0;
+
+        JsonLabelParser(Reader in, LabelHandler handler) {
+            this.in = in;
+            this.handler = handler;
+        }
+
+        void parse() throws IOException {
+            int c = peekNonWhitespace();
+            if (c == -1) {
+                return;
+            }
+            if (c != '{' && c != '[') {
+                throw new IOException("JSON export must start with { or [");
+            }
+            parseValue(null, null);
+            if (nextNonWhitespace() != -1) {
+                throw new IOException("Unexpected content after JSON");
+            }
+        }
+
+        private void parseValue(Map<String, String> owner, String key) throws IOException {
+            int c = nextNonWhitespace();
+            switch (c) {
+                case '{':
+                    parseObject();
+                    break;
+                case '[':
+                    parseArray();
+                    break;
+                case '"':
+                    String s = parseString();
+                    if (owner != null) owner.put(key, s);
+                    break;
+                case -1:
+                    throw new IOException("Unexpected end of JSON");
+                default:
+                    String literal = parseLiteral(c);
+                    if (owner != null && !literal.equals("null")) owner.put(key, literal);
+                    break;
+            }
+        }
+
+        private void parseObject() throws IOException {
+            Map<String, String> fields = new LinkedHashMap<>();
+            open.add(fields);
+
+            int c = nextNonWhitespace();
+            if (c != '}') {
+                pushback = c;
+                while (true) {
+                    expect('"');
+                    String key = parseString();
+                    expect(':');
+                    parseValue(fields, key);
+                    c = nextNonWhitespace();
+                    if (c == '}') break;
+                    if (c != ',') throw new IOException("Expected , or } in JSON object");
+                }
+            }
+
+            open.remove(open.size() - 1);
+            String[] values = roleValues(fields);
+            String zpl = values[ZPL_FIELD];
+            if (zpl != null && !zpl.isBlank()) {
+                handler.accept(new Label(++index, inherited(values, AUFTRAG_FIELD), inherited(values, POS_FIELD),
+                        inherited(values, BARCODE_FIELD), zpl));
+            }
+        }
+
+        private void parseArray() throws IOException {
+            int c = nextNonWhitespace();
+            if (c == ']') return;
+            pushback = c;
+            while (true) {
+                parseValue(null, null);
+                c = nextNonWhitespace();
+                if (c == ']') return;
+                if (c != ',') throw new IOException("Expected , or ] in JSON array");
+            }
+        }
+
+        /**
+         * Field value from the object, else from the nearest enclosing object.
+         */
+        private String inherited(String[] values, int role) {
+            String value = values[role];
+            for (int i = open.size() - 1; value == null && i >= 0; i--) {
+                value = roleValues(open.get(i))[role];
+            }
+            return value == null ? "" : value.trim();
+        }
+
+        /**
+         * Values of the object's fields per role, resolved like a CSV header.
+         */
+        private static String[] roleValues(Map<String, String> fields) {
+            List<String> names = new ArrayList<>(fields.keySet());
+            int[] cols = resolveFields(names);
+            String[] values = new String[cols.length];
+            for (int role = 0; role < cols.length; role++) {
+                values[role] = cols[role] < 0 ? null : fields.get(names.get(cols[role]));
+            }
+            return values;
+        }
+
+        private String parseString() throws IOException {
+            StringBuilder sb = new StringBuilder();
+            int c;
+            while ((c = read()) != '"') {
+                if (c == -1) throw new IOException("Unterminated JSON string");
+                if (c == '\\') {
+                    c = read();
+                    switch (c) {
+                        case 'n': sb.append('\n'); break;
+                        case 'r': sb.append('\r'); break;
+                        case 't': sb.append('\t'); break;
+                        case 'b': sb.append('\b'); break;
+                        case 'f': sb.append('\f'); break;
+                        case 'u':
+                            char[] hex = new char[4];
+                            for (int i = 0; i < 4; i++) {
+                                int h = read();
+                                if (h == -1) throw new IOException("Unterminated JSON escape");
+                                hex[i] = (char) h;
+                            }
+                            try {
+                                sb.append((char) Integer.parseInt(new String(hex), 16));
+                            } catch (NumberFormatException e) {
+                                throw new IOException("Invalid JSON escape: \\u" + new String(hex));
+                            }
+                            break;
+                        case -1: throw new IOException("Unterminated JSON escape");
+                        default: sb.append((char) c); break; // \" \\ \/
+                    }
+                } else {
+                    sb.append((char) c);
+                }
+            }
+            return sb.toString();
+        }
+
+        private String parseLiteral(int first) throws IOException {
+            StringBuilder sb = new StringBuilder();
+            sb.append((char) first);
+            int c;
+            while ((c = read()) != -1 && c != ',' && c != '}' && c != ']' && !Character.isWhitespace(c)) {
+                sb.append((char) c);
+            }
+            pushback = c;
+            String literal = sb.toString();
+            if (!LITERAL.matcher(literal).matches()) {
+                throw new IOException("Invalid JSON value: " + literal);
+            }
+            return literal;
+        }
+
+        private void expect(char expected) throws IOException {
+            int c = nextNonWhitespace();
+            if (c != expected) {
+                throw new IOException("Expected '" + expected + "' in JSON");
+            }
+        }
+
+        private int peekNonWhitespace() throws IOException {
+            int c = nextNonWhitespace();
+            pushback = c;
+            return c;
+        }
+
+        private int nextNonWhitespace() throws IOException {
+            int c;
+            do {
+                c = read();
+            } while (c != -1 && Character.isWhitespace(c));
+            return c;
+        }
+
+        private int read() throws IOException {
+            if (pushback != -2) {
+                int c = pushback;
+                pushback = -2;
+                return c;
+            }
+            return in.read();
+        }
+    }
+}
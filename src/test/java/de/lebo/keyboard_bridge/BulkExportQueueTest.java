@@ -0,0 +1,150 @@
+package de.lebo.keyboard_bridge;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkExportQueueTest {
+
+    @TempDir
+    Path dir;
+
+    private final List<String> exported = new ArrayList<>();
+    private final CountDownLatch firstExportStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseFirstExport = new CountDownLatch(1);
+
+    @Test
+    void cancelledRunCanBeResumedAfterReload() throws Exception {
+        AppConfig config = newConfig();
+        List<ExportJob> jobs = jobs("M1", "M2", "M3", "M4");
+        RunListener interrupted = cancelAfterFirstJob(config, jobs);
+
+        assertTrue(interrupted.cancelled);
+        assertEquals(1, interrupted.succeeded);
+        assertTrue(Files.exists(dir.resolve("bulk_queue.pending")));
+
+        // Application restart: a new queue reads the queue file
+        BulkExportQueue reloaded = newQueue(config);
+        assertEquals(lines(jobs("M2", "M3", "M4")), lines(reloaded.loadPending()));
+
+        RunListener resumed = new RunListener();
+        assertEquals(3, reloaded.start(List.of(), resumed));
+        resumed.await();
+
+        assertFalse(resumed.cancelled);
+        assertEquals(3, resumed.succeeded);
+        assertEquals(List.of("M1", "M2", "M3", "M4"), exportedAuftraege());
+        assertTrue(reloaded.loadPending().isEmpty());
+        assertFalse(Files.exists(dir.resolve("bulk_queue.pending")));
+    }
+
+    @Test
+    void newRunKeepsJobsOfInterruptedRun() throws Exception {
+        AppConfig config = newConfig();
+        cancelAfterFirstJob(config, jobs("M1", "M2", "M3"));
+
+        // Operator pastes a new list instead of clicking "Fortsetzen"
+        BulkExportQueue queue = newQueue(config);
+        RunListener next = new RunListener();
+        assertEquals(4, queue.start(jobs("M9", "M3", "M8"), next));
+        next.await();
+
+        assertEquals(4, next.succeeded);
+        assertEquals(List.of("M1", "M2", "M3", "M9", "M8"), exportedAuftraege());
+        assertTrue(queue.loadPending().isEmpty());
+    }
+
+    /**
+     * Starts the jobs one at a time and cancels while the first one runs.
+     */
+    private RunListener cancelAfterFirstJob(AppConfig config, List<ExportJob> jobs) throws Exception {
+        BulkExportQueue queue = newQueue(config);
+        RunListener listener = new RunListener();
+        queue.start(jobs, listener);
+        assertTrue(firstExportStarted.await(5, TimeUnit.SECONDS));
+        queue.cancel();
+        releaseFirstExport.countDown();
+        listener.await();
+        return listener;
+    }
+
+    private AppConfig newConfig() {
+        Properties props = new Properties();
+        props.setProperty("export.folder", dir.toString());
+        props.setProperty("bulk.parallelism", "1");
+        props.setProperty("bulk.retries", "0");
+        return new AppConfig(props);
+    }
+
+    /**
+     * Queue with a client that records the jobs instead of calling the API.
+     */
+    private BulkExportQueue newQueue(AppConfig config) {
+        ExportClient client = new ExportClient(config, new ExportIndex(config)) {
+            @Override
+            public Result export(ExportJob job) throws IOException {
+                synchronized (exported) {
+                    exported.add(job.getAuftrag());
+                }
+                firstExportStarted.countDown();
+                try {
+                    releaseFirstExport.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new Result(dir.resolve(job.getFileTag() + ".csv"), -1, null);
+            }
+        };
+        return new BulkExportQueue(config, client, new LaneScheduler(config));
+    }
+
+    private List<String> exportedAuftraege() {
+        synchronized (exported) {
+            return new ArrayList<>(exported);
+        }
+    }
+
+    private static List<ExportJob> jobs(String... auftraege) {
+        List<ExportJob> jobs = new ArrayList<>();
+        for (String auftrag : auftraege) {
+            jobs.add(ExportJob.auftrag(auftrag, "", "csv"));
+        }
+        return jobs;
+    }
+
+    private static List<String> lines(List<ExportJob> jobs) {
+        return jobs.stream().map(ExportJob::toLine).collect(Collectors.toList());
+    }
+
+    private static class RunListener implements BulkExportQueue.Listener {
+        private final CountDownLatch finished = new CountDownLatch(1);
+        volatile int succeeded;
+        volatile boolean cancelled;
+
+        @Override
+        public void onJobFinished(ExportJob job, ExportClient.Result result, Exception error, int done, int total) {
+        }
+
+        @Override
+        public void onRunFinished(int succeeded, int failed, boolean cancelled, Path report) {
+            this.succeeded = succeeded;
+            this.cancelled = cancelled;
+            finished.countDown();
+        }
+
+        void await() throws InterruptedException {
+            assertTrue(finished.await(5, TimeUnit.SECONDS), "bulk run did not finish");
+        }
+    }
+}
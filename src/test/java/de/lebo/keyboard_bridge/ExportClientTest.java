@@ -0,0 +1,278 @@
+package de.lebo.keyboard_bridge;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportClientTest {
+
+    private static final String CSV = "Auftrag;Position;Barcode;ZPL\n"
+            + "M1;1;9001;^XA^FDa^XZ\n"
+            + "M1;2;9002;^XA^FDb^XZ\n";
+
+    @TempDir
+    Path dir;
+
+    private ApiServer server;
+
+    @AfterEach
+    void stopServer() throws IOException {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void savesExportWithoutSplit() throws Exception {
+        ExportIndex index = newIndex();
+        ExportClient.Result result = newClient(ZplLabelSplitter.Mode.NONE, index, 200, CSV, -1)
+                .export(ExportJob.auftrag("M1", "", "csv"));
+
+        Path file = result.getFile();
+        assertTrue(file.getFileName().toString().matches("export_\\d{8}_\\d{6}_M1\\.csv"), file.toString());
+        assertEquals(CSV, Files.readString(file));
+        assertNull(result.getSplitSummary());
+        assertEquals("/api/export/auftrag/M1", server.lastPath);
+
+        ExportIndex.Entry entry = index.search("M1").get(0);
+        assertEquals(file.toAbsolutePath(), entry.getFile());
+        assertEquals(CSV.length(), entry.getSize());
+        assertEquals(sha256(CSV), entry.getSha256());
+        assertEquals(List.of(file.getFileName().toString(), "export_index.tsv"), files(dir));
+    }
+
+    @Test
+    void labelModeMovesSplitFolderOntoItsClaim() throws Exception {
+        ExportClient.Result result = newClient(ZplLabelSplitter.Mode.LABEL, newIndex(), 200, CSV, -1)
+                .export(ExportJob.auftrag("M1", "", "csv"));
+
+        assertEquals("Split: 2 labels", result.getSplitSummary());
+        Path folder = splitOutput(result.getFile(), "_zpl");
+        assertEquals(List.of("label_00001_9001.zpl", "label_00002_9002.zpl"), files(folder));
+        assertNoPartFiles();
+    }
+
+    @Test
+    void positionModeMovesSplitFolderOntoItsClaim() throws Exception {
+        ExportClient.Result result = newClient(ZplLabelSplitter.Mode.POSITION, newIndex(), 200, CSV, -1)
+                .export(ExportJob.auftrag("M1", "", "csv"));
+
+        assertEquals("Split: 2 labels", result.getSplitSummary());
+        Path folder = splitOutput(result.getFile(), "_zpl");
+        assertEquals(List.of("M1_1.zpl", "M1_2.zpl"), files(folder));
+        assertEquals("^XA^FDb^XZ\n", Files.readString(folder.resolve("M1_2.zpl")));
+        assertNoPartFiles();
+    }
+
+    @Test
+    void zplModeReplacesClaimedFile() throws Exception {
+        ExportClient.Result result = newClient(ZplLabelSplitter.Mode.ZPL, newIndex(), 200, CSV, -1)
+                .export(ExportJob.auftrag("M1", "", "csv"));
+
+        assertEquals("Split: 2 labels", result.getSplitSummary());
+        assertEquals("^XA^FDa^XZ\n^XA^FDb^XZ\n", Files.readString(splitOutput(result.getFile(), ".zpl")));
+        assertNoPartFiles();
+    }
+
+    @Test
+    void failedSplitKeepsExport() throws Exception {
+        ExportClient.Result result = newClient(ZplLabelSplitter.Mode.LABEL, newIndex(), 200, "Auftrag;ZPL\nM1;\"^XA", -1)
+                .export(ExportJob.auftrag("M1", "", "csv"));
+
+        assertTrue(result.isSplitFailed());
+        assertTrue(result.getSplitSummary().startsWith("Split failed: "), result.getSplitSummary());
+        assertEquals("Auftrag;ZPL\nM1;\"^XA", Files.readString(result.getFile()));
+        assertEquals(List.of(result.getFile().getFileName().toString(), "export_index.tsv"), files(dir));
+    }
+
+    @Test
+    void invalidJsonEscapeFailsOnlyTheSplit() throws Exception {
+        String json = "[{\"auftrag\":\"M1\",\"zpl\":\"^XA\\uZZZZ^XZ\"}]";
+        ExportClient.Result result = newClient(ZplLabelSplitter.Mode.ZPL, newIndex(), 200, json, -1)
+                .export(ExportJob.auftrag("M1", "", "json"));
+
+        assertEquals("Split failed: Invalid JSON escape: \\uZZZZ", result.getSplitSummary());
+        assertEquals(json, Files.readString(result.getFile()));
+    }
+
+    @Test
+    void publishSkipsTakenFileAndSplitNames() throws Exception {
+        // Taken for this second and the next: a CSV export of the same job, and the
+        // split folder of a JSON export (CSV and JSON share the _zpl name)
+        LocalDateTime now = LocalDateTime.now();
+        for (LocalDateTime time : List.of(now, now.plusSeconds(1))) {
+            String base = "export_" + time.format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + "_M1";
+            Files.writeString(dir.resolve(base + ".csv"), "older export");
+            Files.createDirectory(dir.resolve(base + "_1_zpl"));
+        }
+
+        ExportClient.Result result = newClient(ZplLabelSplitter.Mode.LABEL, newIndex(), 200, CSV, -1)
+                .export(ExportJob.auftrag("M1", "", "csv"));
+
+        assertTrue(result.getFile().getFileName().toString().endsWith("_M1_2.csv"), result.getFile().toString());
+        assertEquals(2, files(splitOutput(result.getFile(), "_zpl")).size());
+        try (Stream<Path> list = Files.list(dir)) {
+            assertEquals(2, list.filter(p -> p.getFileName().toString().endsWith("_M1.csv"))
+                    .filter(p -> readQuietly(p).equals("older export")).count());
+        }
+    }
+
+    @Test
+    void incompleteDownloadLeavesNothingBehind() throws Exception {
+        ExportIndex index = newIndex();
+        ExportClient client = newClient(ZplLabelSplitter.Mode.LABEL, index, 200, CSV, CSV.length() + 100);
+
+        IOException e = assertThrows(IOException.class, () -> client.export(ExportJob.auftrag("M1", "", "csv")));
+        assertTrue(e.getMessage().contains("Incomplete download"), e.getMessage());
+        assertEquals(List.of(), files(dir));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void apiErrorIsReportedWithStatus() throws Exception {
+        ExportClient client = newClient(ZplLabelSplitter.Mode.NONE, newIndex(), 404, "not found", -1);
+
+        ExportClient.ApiStatusException e = assertThrows(ExportClient.ApiStatusException.class,
+                () -> client.export(ExportJob.range("1", "5", "json")));
+        assertEquals(404, e.getStatusCode());
+        assertFalse(e.isRetryable());
+        assertEquals("/api/export/range/json?startBarcode=1&endBarcode=5", server.lastPath);
+        assertEquals(List.of(), files(dir));
+    }
+
+    @Test
+    void deletesOnlyStalePartFiles() throws Exception {
+        FileTime old = FileTime.fromMillis(System.currentTimeMillis() - 60_000);
+        Path part = Files.writeString(dir.resolve("export_123.part"), "half");
+        Path splitPart = Files.createDirectory(dir.resolve("export_123.part.zpl.part"));
+        Files.writeString(splitPart.resolve("label_00001.zpl"), "^XA^XZ");
+        Files.setLastModifiedTime(part, old);
+        Files.setLastModifiedTime(splitPart, old);
+        Files.setLastModifiedTime(Files.writeString(dir.resolve("export_1_M1.csv"), "kept"), old);
+
+        ExportClient client = newClient(ZplLabelSplitter.Mode.NONE, newIndex(), 200, CSV, -1);
+        // Download started after the client - not stale
+        Path running = Files.writeString(dir.resolve("export_456.part"), "running");
+        Files.setLastModifiedTime(running, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+
+        assertEquals(2, client.deleteStaleParts());
+        assertEquals(List.of("export_1_M1.csv", "export_456.part"), files(dir));
+    }
+
+    private ExportIndex newIndex() {
+        return new ExportIndex(newConfig(ZplLabelSplitter.Mode.NONE, 0));
+    }
+
+    private ExportClient newClient(ZplLabelSplitter.Mode mode, ExportIndex index, int status, String body,
+                                   long contentLength) throws IOException {
+        server = new ApiServer(status, body, contentLength);
+        return new ExportClient(newConfig(mode, server.getPort()), index);
+    }
+
+    private AppConfig newConfig(ZplLabelSplitter.Mode mode, int apiPort) {
+        Properties props = new Properties();
+        props.setProperty("server.host", "127.0.0.1");
+        props.setProperty("api.port", String.valueOf(apiPort));
+        props.setProperty("export.folder", dir.toString());
+        props.setProperty("export.split", mode.name().toLowerCase());
+        return new AppConfig(props);
+    }
+
+    private void assertNoPartFiles() throws IOException {
+        for (String name : files(dir)) {
+            assertFalse(name.endsWith(".part"), name);
+        }
+    }
+
+    private static Path splitOutput(Path exportFile, String suffix) {
+        String name = exportFile.getFileName().toString();
+        return exportFile.resolveSibling(name.substring(0, name.lastIndexOf('.')) + suffix);
+    }
+
+    private static List<String> files(Path folder) throws IOException {
+        try (Stream<Path> list = Files.list(folder)) {
+            return list.map(p -> p.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static String readQuietly(Path file) {
+        try {
+            return Files.isRegularFile(file) ? Files.readString(file) : "";
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    private static String sha256(String text) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Minimal HTTP/1.1 server that answers every GET with the same response.
+     * contentLength -1 sends the real body length.
+     */
+    private static class ApiServer implements AutoCloseable {
+        private final ServerSocket socket;
+        volatile String lastPath;
+
+        ApiServer(int status, String body, long contentLength) throws IOException {
+            socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            long length = contentLength >= 0 ? contentLength : bytes.length;
+            Thread thread = new Thread(() -> {
+                while (!socket.isClosed()) {
+                    try (Socket client = socket.accept()) {
+                        BufferedReader in = new BufferedReader(
+                                new InputStreamReader(client.getInputStream(), StandardCharsets.ISO_8859_1));
+                        lastPath = in.readLine().split(" ")[1];
+                        String line;
+                        while ((line = in.readLine()) != null && !line.isEmpty()) {
+                            // skip request headers
+                        }
+                        OutputStream out = client.getOutputStream();
+                        out.write(("HTTP/1.1 " + status + " X\r\nContent-Length: " + length
+                                + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+                        out.write(bytes);
+                        out.flush();
+                    } catch (IOException e) {
+                        // closed by the test
+                    }
+                }
+            }, "ApiServer");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        int getPort() {
+            return socket.getLocalPort();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package de.lebo.keyboard_bridge;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportIndexTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void findsAuftragAndAuftragWithPosition() throws IOException {
+        ExportIndex index = newIndex();
+        add(index, ExportJob.auftrag("M0001444", "", "csv"), "a.csv");
+        add(index, ExportJob.auftrag("M0001444", "3", "csv"), "a3.csv");
+        add(index, ExportJob.auftrag("M0001444", "4", "json"), "a4.json");
+        add(index, ExportJob.auftrag("M0009999", "3", "csv"), "b3.csv");
+
+        // Newest first; an Auftrag also finds its Position exports
+        assertEquals(List.of("a4.json", "a3.csv", "a.csv"), files(index.search("M0001444")));
+        assertEquals(List.of("a4.json", "a3.csv", "a.csv"), files(index.search(" m0001444 ")));
+        for (String query : new String[] { "M0001444/3", "M0001444;3", "M0001444,3", "M0001444 3" }) {
+            assertEquals(List.of("a3.csv"), files(index.search(query)), query);
+        }
+        assertEquals(List.of(), files(index.search("M0001444/9")));
+        assertEquals(List.of(), files(index.search("")));
+    }
+
+    @Test
+    void findsBarcodeInsideRange() throws IOException {
+        ExportIndex index = newIndex();
+        add(index, ExportJob.range("9029190001", "9029190010", "csv"), "r1.csv");
+        add(index, ExportJob.range("9029190005", "9029190100", "json"), "r2.json");
+
+        assertEquals(List.of("r1.csv"), files(index.search("9029190001")));
+        assertEquals(List.of("r2.json", "r1.csv"), files(index.search("9029190005")));
+        assertEquals(List.of("r2.json", "r1.csv"), files(index.search("9029190010")));
+        assertEquals(List.of("r2.json"), files(index.search("9029190099")));
+        assertEquals(List.of(), files(index.search("9029190101")));
+        assertEquals(List.of(), files(index.search("902919000")));
+    }
+
+    @Test
+    void rebuildsFromIndexFileAndSkipsMalformedLines() throws IOException {
+        ExportIndex index = newIndex();
+        add(index, ExportJob.auftrag("M1", "2", "csv"), "m1.csv");
+        add(index, ExportJob.range("100", "200", "json"), "r.json");
+        Files.writeString(dir.resolve("export_index.tsv"), "garbage\tline\n", StandardOpenOption.APPEND);
+
+        ExportIndex reloaded = newIndex();
+        assertEquals(2, reloaded.load());
+        assertEquals(2, reloaded.size());
+        ExportIndex.Entry entry = reloaded.search("M1/2").get(0);
+        assertEquals(dir.resolve("m1.csv").toAbsolutePath(), entry.getFile());
+        assertEquals(7, entry.getSize());
+        assertEquals("sha-m1.csv", entry.getSha256());
+        assertEquals(List.of("r.json"), files(reloaded.search("150")));
+    }
+
+    @Test
+    void searchKeepsDeletedFilesAndNotifiesOnAdd() throws IOException {
+        ExportIndex index = newIndex();
+        AtomicInteger added = new AtomicInteger();
+        index.setOnAdded(added::incrementAndGet);
+        add(index, ExportJob.auftrag("M1", "", "csv"), "gone.csv");
+        Files.delete(dir.resolve("gone.csv"));
+
+        // Existence is checked when opening, not on every keystroke
+        assertEquals(List.of("gone.csv"), files(index.search("M1")));
+        assertEquals(1, added.get());
+    }
+
+    @Test
+    void comparesBarcodesNumerically() {
+        assertEquals(0, ExportIndex.compareBarcodes("9029190005", "9029190005"));
+        assertTrue(ExportIndex.compareBarcodes("9029190001", "9029190010") < 0);
+        assertTrue(ExportIndex.compareBarcodes("9029190010", "9029190001") > 0);
+        // Longer numbers are larger, not lexicographically smaller
+        assertTrue(ExportIndex.compareBarcodes("9", "10") < 0);
+        assertTrue(ExportIndex.compareBarcodes("100", "99") > 0);
+    }
+
+    @Test
+    void ignoresLeadingZeros() {
+        assertEquals(0, ExportIndex.compareBarcodes("0042", "42"));
+        assertEquals(0, ExportIndex.compareBarcodes("000", "0"));
+        assertTrue(ExportIndex.compareBarcodes("0009", "10") < 0);
+    }
+
+    @Test
+    void handlesBarcodesBeyondLongRange() {
+        String big = "123456789012345678901234567890";
+        assertTrue(ExportIndex.compareBarcodes(big, big + "0") < 0);
+        assertTrue(ExportIndex.compareBarcodes("123456789012345678901234567891", big) > 0);
+    }
+
+    private ExportIndex newIndex() {
+        Properties props = new Properties();
+        props.setProperty("export.folder", dir.toString());
+        return new ExportIndex(new AppConfig(props));
+    }
+
+    private void add(ExportIndex index, ExportJob job, String name) throws IOException {
+        Path file = Files.writeString(dir.resolve(name), "content");
+        index.add(job, file, Files.size(file), "sha-" + name);
+        // Entries are ordered by time - keep them apart
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<String> files(List<ExportIndex.Entry> entries) {
+        return entries.stream().map(e -> e.getFile().getFileName().toString()).collect(Collectors.toList());
+    }
+}
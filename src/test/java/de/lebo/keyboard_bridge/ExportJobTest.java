@@ -0,0 +1,61 @@
+package de.lebo.keyboard_bridge;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportJobTest {
+
+    @Test
+    void parsesAuftragWithAndWithoutPosition() {
+        ExportJob job = ExportJob.parse("  M0001444  ", "csv");
+        assertEquals(ExportJob.Kind.AUFTRAG, job.getKind());
+        assertEquals("M0001444", job.getAuftrag());
+        assertEquals("", job.getPosition());
+        assertEquals("/api/export/auftrag/M0001444", job.getEndpoint());
+
+        for (String line : new String[] { "M0001444/3", "M0001444;3", "M0001444,3", "M0001444 3", "M0001444\t3" }) {
+            job = ExportJob.parse(line, "json");
+            assertEquals("M0001444", job.getAuftrag(), line);
+            assertEquals("3", job.getPosition(), line);
+            assertEquals("/api/export/auftrag/M0001444/pos/3/json", job.getEndpoint(), line);
+        }
+    }
+
+    @Test
+    void parsesBarcodeRanges() {
+        for (String line : new String[] { "9029190001-9029190010", "9029190001..9029190010", "9029190001 - 9029190010" }) {
+            ExportJob job = ExportJob.parse(line, "csv");
+            assertEquals(ExportJob.Kind.RANGE, job.getKind(), line);
+            assertEquals("9029190001", job.getStartBarcode(), line);
+            assertEquals("9029190010", job.getEndBarcode(), line);
+        }
+        assertEquals("/api/export/range?startBarcode=1&endBarcode=2", ExportJob.parse("1-2", "csv").getEndpoint());
+    }
+
+    @Test
+    void skipsBlankLinesAndComments() {
+        assertNull(ExportJob.parse("", "csv"));
+        assertNull(ExportJob.parse("   ", "csv"));
+        assertNull(ExportJob.parse("# Auftraege KW 3", "csv"));
+    }
+
+    @Test
+    void rejectsUnsafeOrExtraTokens() {
+        for (String line : new String[] { "M1/2/3", "M1 2 3", "M1?x=1", "M1#3", "M1/../x", "M1;%2F", "\u00c41" }) {
+            assertThrows(IllegalArgumentException.class, () -> ExportJob.parse(line, "csv"), line);
+        }
+    }
+
+    @Test
+    void queueLineRoundTrip() {
+        ExportJob auftrag = ExportJob.parse("M0001444/3", "json");
+        ExportJob restored = ExportJob.fromLine(auftrag.toLine());
+        assertEquals(auftrag.getEndpoint(), restored.getEndpoint());
+        assertEquals("M0001444_P3", restored.getFileTag());
+
+        ExportJob range = ExportJob.parse("1..5", "csv");
+        assertEquals(range.getEndpoint(), ExportJob.fromLine(range.toLine()).getEndpoint());
+        assertThrows(IllegalArgumentException.class, () -> ExportJob.fromLine("AUFTRAG;M1"));
+    }
+}
@@ -0,0 +1,153 @@
+package de.lebo.keyboard_bridge;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LaneSchedulerTest {
+
+    // Task name -> gate the task waits on until the test releases it
+    private final Map<String, Semaphore> gates = new ConcurrentHashMap<>();
+    private final List<String> started = new ArrayList<>();
+
+    @Test
+    void scanRunsWhileBackgroundLanesAreFull() throws InterruptedException {
+        LaneScheduler scheduler = newScheduler(1, 1, 1, 2000);
+        scheduler.submit(LaneScheduler.Lane.EXPORT, task("E"));
+        awaitStarted(1);
+        scheduler.submit(LaneScheduler.Lane.BULK, task("B"));
+        scheduler.submit(LaneScheduler.Lane.SCAN, task("S"));
+
+        awaitStarted(2);
+        assertEquals(List.of("E", "S"), started());
+        assertEquals(1, scheduler.getQueueDepth(LaneScheduler.Lane.BULK));
+
+        release("E");
+        awaitStarted(3);
+        assertEquals("B", started().get(2));
+        release("S");
+        release("B");
+    }
+
+    @Test
+    void singleExportGetsNextSlotAheadOfBulkBacklog() throws InterruptedException {
+        // Bulk may use every background slot; aging is short enough that a per-task
+        // clock would have raised the whole backlog above the export
+        LaneScheduler scheduler = newScheduler(3, 2, 3, 1);
+        for (int i = 0; i < 30; i++) {
+            scheduler.submit(LaneScheduler.Lane.BULK, task("B" + i));
+        }
+        awaitStarted(3);
+        assertEquals(27, scheduler.getQueueDepth(LaneScheduler.Lane.BULK));
+        Thread.sleep(20);
+
+        scheduler.submit(LaneScheduler.Lane.EXPORT, task("E"));
+        assertEquals(1, scheduler.getQueueDepth(LaneScheduler.Lane.EXPORT));
+        release(started().get(0));
+
+        awaitStarted(4);
+        assertEquals("E", started().get(3));
+        assertEquals(27, scheduler.getQueueDepth(LaneScheduler.Lane.BULK));
+
+        releaseAll(31);
+        awaitStarted(31);
+    }
+
+    @Test
+    void passedOverBulkLaneAgesAheadOfExports() throws InterruptedException {
+        LaneScheduler scheduler = newScheduler(1, 1, 1, 20);
+        scheduler.submit(LaneScheduler.Lane.EXPORT, task("E0"));
+        awaitStarted(1);
+        scheduler.submit(LaneScheduler.Lane.BULK, task("B"));
+        scheduler.submit(LaneScheduler.Lane.EXPORT, task("E1"));
+
+        // Not aged yet: the export wins, the bulk lane starts aging
+        release("E0");
+        awaitStarted(2);
+        assertEquals("E1", started().get(1));
+
+        // Two aging steps later the bulk lane beats a new export
+        Thread.sleep(60);
+        scheduler.submit(LaneScheduler.Lane.EXPORT, task("E2"));
+        release("E1");
+        awaitStarted(3);
+        assertEquals("B", started().get(2));
+
+        release("B");
+        awaitStarted(4);
+        assertEquals(List.of("E0", "E1", "B", "E2"), started());
+        release("E2");
+    }
+
+    @Test
+    void recordsWaitTimes() throws InterruptedException {
+        LaneScheduler scheduler = newScheduler(1, 1, 1, 2000);
+        scheduler.submit(LaneScheduler.Lane.BULK, task("B0"));
+        scheduler.submit(LaneScheduler.Lane.BULK, task("B1"));
+        awaitStarted(1);
+        Thread.sleep(30);
+        release("B0");
+        awaitStarted(2);
+
+        assertTrue(scheduler.getMaxWaitMs(LaneScheduler.Lane.BULK) >= 30);
+        assertTrue(scheduler.getAverageWaitMs(LaneScheduler.Lane.BULK) >= 15);
+        assertEquals(0, scheduler.getMaxWaitMs(LaneScheduler.Lane.SCAN));
+        release("B1");
+    }
+
+    private static LaneScheduler newScheduler(int bulk, int export, int background, long agingMs) {
+        Properties props = new Properties();
+        props.setProperty("bulk.parallelism", String.valueOf(bulk));
+        props.setProperty("lane.export.max", String.valueOf(export));
+        props.setProperty("lane.background.max", String.valueOf(background));
+        props.setProperty("lane.aging.ms", String.valueOf(agingMs));
+        return new LaneScheduler(new AppConfig(props));
+    }
+
+    private Runnable task(String name) {
+        Semaphore gate = gates.computeIfAbsent(name, k -> new Semaphore(0));
+        return () -> {
+            synchronized (started) {
+                started.add(name);
+                started.notifyAll();
+            }
+            gate.acquireUninterruptibly();
+        };
+    }
+
+    private void release(String name) {
+        gates.computeIfAbsent(name, k -> new Semaphore(0)).release();
+    }
+
+    private void releaseAll(int count) {
+        for (Semaphore gate : gates.values()) {
+            gate.release(count);
+        }
+    }
+
+    private List<String> started() {
+        synchronized (started) {
+            return new ArrayList<>(started);
+        }
+    }
+
+    private void awaitStarted(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        synchronized (started) {
+            while (started.size() < count) {
+                long left = deadline - System.currentTimeMillis();
+                if (left <= 0) {
+                    fail("Only " + started + " started, expected " + count);
+                }
+                started.wait(left);
+            }
+        }
+    }
+}
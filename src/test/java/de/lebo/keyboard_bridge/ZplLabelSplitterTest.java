@@ -0,0 +1,149 @@
+package de.lebo.keyboard_bridge;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZplLabelSplitterTest {
+
+    private static final String CSV = "Auftrag;Position;Barcode;ZPL\n"
+            + "M1;1;9001;\"^XA^FDa;b\"\"x\"\"\n^XZ\"\n"
+            + "M1;2;9002;^XA^FDc^XZ\r\n"
+            + "\n"
+            + "M1;2;9003;^XA^FDd^XZ\n";
+
+    private static final String JSON = "{\"auftrag\":\"M2\",\"positionen\":["
+            + "{\"pos\":1,\"labels\":[{\"barcode\":\"9101\",\"zpl\":\"^XA^FD\\u00e4\\n^XZ\"},"
+            + "{\"barcode\":\"9102\",\"zpl\":\"^XA^FDb^XZ\",\"x\":null}]},"
+            + "{\"pos\":2,\"labels\":[{\"barcode\":\"9201\",\"zpl\":\"^XA^FDc^XZ\"}]}]}";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void csvQuotedMultiLineFieldAndEscapedQuotes() throws IOException {
+        Path out = dir.resolve("csv_zpl");
+        assertEquals(3, split(ZplLabelSplitter.Mode.LABEL, CSV, "csv", out));
+
+        assertEquals(List.of("label_00001_9001.zpl", "label_00002_9002.zpl", "label_00003_9003.zpl"), files(out));
+        assertEquals("^XA^FDa;b\"x\"\n^XZ\n", read(out.resolve("label_00001_9001.zpl")));
+        assertEquals("^XA^FDc^XZ\n", read(out.resolve("label_00002_9002.zpl")));
+    }
+
+    @Test
+    void jsonNestedObjectsInheritAuftragAndPosition() throws IOException {
+        Path out = dir.resolve("json_zpl");
+        assertEquals(3, split(ZplLabelSplitter.Mode.POSITION, JSON, "json", out));
+
+        assertEquals(List.of("M2_1.zpl", "M2_2.zpl"), files(out));
+        assertEquals("^XA^FD\u00e4\n^XZ\n^XA^FDb^XZ\n", read(out.resolve("M2_1.zpl")));
+        assertEquals("^XA^FDc^XZ\n", read(out.resolve("M2_2.zpl")));
+    }
+
+    @Test
+    void labelModeWritesOneFilePerLabel() throws IOException {
+        Path out = dir.resolve("json_zpl");
+        assertEquals(3, split(ZplLabelSplitter.Mode.LABEL, JSON, "json", out));
+
+        assertEquals(List.of("label_00001_9101.zpl", "label_00002_9102.zpl", "label_00003_9201.zpl"), files(out));
+    }
+
+    @Test
+    void positionModeGroupsCsvLabelsByPosition() throws IOException {
+        Path out = dir.resolve("csv_zpl");
+        assertEquals(3, split(ZplLabelSplitter.Mode.POSITION, CSV, "csv", out));
+
+        assertEquals(List.of("M1_1.zpl", "M1_2.zpl"), files(out));
+        assertEquals("^XA^FDc^XZ\n^XA^FDd^XZ\n", read(out.resolve("M1_2.zpl")));
+    }
+
+    @Test
+    void zplModeConcatenatesLabelsInOrder() throws IOException {
+        Path out = dir.resolve("export.zpl");
+        assertEquals(3, split(ZplLabelSplitter.Mode.ZPL, CSV, "csv", out));
+
+        assertEquals("^XA^FDa;b\"x\"\n^XZ\n^XA^FDc^XZ\n^XA^FDd^XZ\n", read(out));
+    }
+
+    @Test
+    void outputNameDependsOnMode() {
+        Path export = dir.resolve("export_20250115_143000_M1.csv");
+        assertEquals(dir.resolve("export_20250115_143000_M1.zpl"),
+                new ZplLabelSplitter(ZplLabelSplitter.Mode.ZPL, 1).outputFor(export));
+        assertEquals(dir.resolve("export_20250115_143000_M1_zpl"),
+                new ZplLabelSplitter(ZplLabelSplitter.Mode.LABEL, 1).outputFor(export));
+    }
+
+    @Test
+    void exactAndWholeWordNamesWinOverSubstrings() throws IOException {
+        String csv = "auftragsNr;auftragsPosition;ZPL\nM3;7;^XAa^XZ\n";
+        Path out = dir.resolve("csv_zpl");
+        split(ZplLabelSplitter.Mode.POSITION, csv, "csv", out);
+        assertEquals(List.of("M3_7.zpl"), files(out));
+
+        String json = "{\"auftragsNr\":\"M4\",\"auftragsPosition\":8,\"items\":[{\"zpl\":\"^XAb^XZ\"}]}";
+        out = dir.resolve("json_zpl");
+        split(ZplLabelSplitter.Mode.POSITION, json, "json", out);
+        assertEquals(List.of("M4_8.zpl"), files(out));
+    }
+
+    @Test
+    void csvWithoutZplHeaderUsesFieldStartingWithXa() throws IOException {
+        Path out = dir.resolve("export.zpl");
+        assertEquals(2, split(ZplLabelSplitter.Mode.ZPL, "M1;^XAa^XZ\nM1;^XAb^XZ\n", "csv", out));
+        assertEquals("^XAa^XZ\n^XAb^XZ\n", read(out));
+    }
+
+    @Test
+    void csvWithoutAnyZplYieldsNoLabels() throws IOException {
+        Path out = dir.resolve("export.zpl");
+        assertEquals(0, split(ZplLabelSplitter.Mode.ZPL, "Auftrag;Position\nM1;1\n", "csv", out));
+        assertEquals("", read(out));
+    }
+
+    @Test
+    void malformedInputFails() {
+        Path out = dir.resolve("export.zpl");
+        assertThrows(IOException.class,
+                () -> split(ZplLabelSplitter.Mode.ZPL, "Auftrag;ZPL\nM1;\"^XA^XZ\n", "csv", out));
+        assertThrows(IOException.class,
+                () -> split(ZplLabelSplitter.Mode.ZPL, "[{\"zpl\":\"^XA^XZ", "json", out));
+        assertThrows(IOException.class,
+                () -> split(ZplLabelSplitter.Mode.ZPL, "[{\"zpl\":\"^XA^XZ\"},", "json", out));
+        assertThrows(IOException.class,
+                () -> split(ZplLabelSplitter.Mode.ZPL, "{\"auftrag\":\"M1\"", "json", out));
+        // A CSV body is not JSON
+        assertThrows(IOException.class,
+                () -> split(ZplLabelSplitter.Mode.ZPL, "Auftrag;ZPL\nM1;^XA^XZ\n", "json", out));
+        assertThrows(IOException.class,
+                () -> split(ZplLabelSplitter.Mode.ZPL, "{\"zpl\":\"^XA^XZ\"} trailing", "json", out));
+        assertThrows(IOException.class,
+                () -> split(ZplLabelSplitter.Mode.ZPL, "{\"zpl\":\"^XA\\uZZZZ^XZ\"}", "json", out));
+        assertThrows(IOException.class,
+                () -> split(ZplLabelSplitter.Mode.ZPL, "{\"zpl\":\"^XA\\u00", "json", out));
+    }
+
+    private static int split(ZplLabelSplitter.Mode mode, String text, String format, Path output) throws IOException {
+        return new ZplLabelSplitter(mode, 2).split(new StringReader(text), format, output);
+    }
+
+    private static List<String> files(Path folder) throws IOException {
+        try (Stream<Path> list = Files.list(folder)) {
+            return list.map(p -> p.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static String read(Path file) throws IOException {
+        return Files.readString(file, StandardCharsets.UTF_8);
+    }
+}